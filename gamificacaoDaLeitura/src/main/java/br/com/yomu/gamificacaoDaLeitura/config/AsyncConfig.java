@@ -0,0 +1,35 @@
+package br.com.yomu.gamificacaoDaLeitura.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Tamanho da fila e métricas (executor.queued, executor.active...) ficam
+    // expostos pelo actuator, que monitora todos os ThreadPoolTaskExecutor
+    @Bean(name = "rankingTaskExecutor")
+    public ThreadPoolTaskExecutor rankingTaskExecutor(
+            @Value("${yomu.ranking.executor.threads:2}") int threads,
+            @Value("${yomu.ranking.executor.fila:100}") int capacidadeFila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(capacidadeFila); // Fila limitada
+        executor.setThreadNamePrefix("ranking-async-");
+        // Fila cheia: a tarefa é recusada e quem enviou decide (ver RankingAtualizacaoService),
+        // nunca roda na thread da requisição
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // Drena o que já está na fila antes de desligar
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
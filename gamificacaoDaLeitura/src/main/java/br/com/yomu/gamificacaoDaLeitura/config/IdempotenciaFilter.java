@@ -0,0 +1,198 @@
+package br.com.yomu.gamificacaoDaLeitura.config;
+
+import br.com.yomu.gamificacaoDaLeitura.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * POST com cabeçalho Idempotency-Key: a primeira requisição executa e, se
+ * terminar com 2xx, a resposta é guardada; as repetições (retries da rede
+ * móvel, por exemplo) recebem a mesma resposta sem executar de novo.
+ *
+ * Só vale para o registro de progresso ({@link #ROTAS}), cujas respostas não
+ * levam dados sensíveis: usuários e login nunca têm a resposta guardada.
+ *
+ * Respostas de erro não são guardadas: nada foi gravado e a próxima tentativa
+ * executa normalmente. Sem o cabeçalho nada muda.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+    // Registro de progresso, avulso e em lote
+    public static final String ROTAS = "/api/progressos/usuario/";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+    // Um lote de 500 progressos fica bem abaixo disto
+    private static final int TAMANHO_MAXIMO_CORPO = 256 * 1024;
+
+    private final IdempotenciaService idempotenciaService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(CABECALHO) == null
+                || !request.getRequestURI().startsWith(request.getContextPath() + ROTAS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String valor = request.getHeader(CABECALHO).trim();
+        if (valor.isEmpty() || valor.length() > TAMANHO_MAXIMO_CHAVE) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(),
+                    CABECALHO + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+
+        // A chave vale para um endpoint (e usuário, que está na URI); o hash do corpo detecta reuso com outro conteúdo
+        // O corpo fica em memória para o hash: acima do limite a requisição é recusada sem ler o resto
+        byte[] corpo = request.getContentLengthLong() > TAMANHO_MAXIMO_CORPO
+                ? null : request.getInputStream().readNBytes(TAMANHO_MAXIMO_CORPO + 1);
+        if (corpo == null || corpo.length > TAMANHO_MAXIMO_CORPO) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Corpo acima de " + TAMANHO_MAXIMO_CORPO + " bytes em requisição com " + CABECALHO);
+            return;
+        }
+        String chave = request.getMethod() + " " + request.getRequestURI() + " " + valor;
+        String hash = sha256(corpo);
+
+        IdempotenciaService.Reserva reserva = idempotenciaService.reservar(chave, hash);
+        switch (reserva.situacao()) {
+            case REPETIDA -> {
+                log.debug("🔁 Resposta repetida para {}", chave);
+                reproduzir(response, reserva.resposta());
+                return;
+            }
+            case EM_ANDAMENTO -> {
+                response.setHeader("Retry-After", "1");
+                response.sendError(HttpStatus.CONFLICT.value(), "Requisição com esta " + CABECALHO + " ainda em andamento");
+                return;
+            }
+            case CHAVE_REUTILIZADA -> {
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), CABECALHO + " já usada com outro corpo");
+                return;
+            }
+            case NOVA -> {
+            }
+        }
+
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(new CorpoLido(request, corpo), resposta);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotenciaService.liberar(chave);
+            throw e;
+        }
+
+        if (HttpStatus.valueOf(resposta.getStatus()).is2xxSuccessful()) {
+            try {
+                idempotenciaService.concluir(chave, hash, new IdempotenciaService.RespostaGuardada(
+                        resposta.getStatus(), resposta.getContentType(), resposta.getHeader(HttpHeaders.LOCATION),
+                        resposta.getContentAsByteArray()));
+            } catch (RuntimeException e) {
+                // A transação de negócio já foi confirmada: a reserva fica e as repetições recebem 409 até ela expirar
+                log.error("❌ Erro ao guardar resposta idempotente de {}: {}", chave, e.getMessage(), e);
+            }
+        } else {
+            idempotenciaService.liberar(chave);
+        }
+        resposta.copyBodyToResponse();
+    }
+
+    private void reproduzir(HttpServletResponse response, IdempotenciaService.RespostaGuardada guardada) throws IOException {
+        response.setStatus(guardada.status());
+        if (guardada.contentType() != null) {
+            response.setContentType(guardada.contentType());
+        }
+        if (guardada.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, guardada.location());
+        }
+        response.setHeader(CABECALHO_REPETIDA, "true");
+        response.setContentLength(guardada.corpo().length);
+        response.getOutputStream().write(guardada.corpo());
+    }
+
+    private static String sha256(byte[] corpo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(corpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // O corpo já foi lido para calcular o hash: o controller lê a cópia
+    private static class CorpoLido extends HttpServletRequestWrapper {
+
+        private final byte[] corpo;
+
+        CorpoLido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] destino, int inicio, int tamanho) {
+                    return entrada.read(destino, inicio, tamanho);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.yomu.gamificacaoDaLeitura.config;
+
+import br.com.yomu.gamificacaoDaLeitura.service.RankingLiderancaService;
+import br.com.yomu.gamificacaoDaLeitura.service.RankingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Recálculo periódico de todos os rankings, só na instância líder
+@Configuration
+@Slf4j
+public class RankingAgendamentoConfig implements SchedulingConfigurer {
+
+    private final RankingService rankingService;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final long intervaloMs;
+    private final long jitterMs;
+
+    public RankingAgendamentoConfig(
+            RankingService rankingService,
+            RankingLiderancaService rankingLiderancaService,
+            @Value("${yomu.ranking.lideranca.intervalo-ms:300000}") long intervaloMs,
+            @Value("${yomu.ranking.lideranca.jitter-ms:30000}") long jitterMs) {
+        this.rankingService = rankingService;
+        this.rankingLiderancaService = rankingLiderancaService;
+        this.intervaloMs = intervaloMs;
+        this.jitterMs = jitterMs;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        // Cadência fixa a partir do fim da última execução, mais um jitter aleatório
+        registrar.addTriggerTask(this::recalcular, contexto -> {
+            Instant base = contexto.lastCompletion() != null ? contexto.lastCompletion() : Instant.now();
+            long jitter = jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0;
+            return base.plusMillis(intervaloMs + jitter);
+        });
+    }
+
+    private void recalcular() {
+        if (!rankingLiderancaService.souLider()) {
+            log.debug("⏭️  {} não é líder; recálculo agendado ignorado", rankingLiderancaService.getInstancia());
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        try {
+            rankingService.atualizarTodosRankings();
+            long duracao = System.currentTimeMillis() - inicio;
+            rankingLiderancaService.registrarExecucao(duracao);
+            log.info("🏆 Recálculo agendado dos rankings concluído em {} ms", duracao);
+        } catch (Exception e) {
+            log.error("❌ Erro no recálculo agendado dos rankings: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package br.com.yomu.gamificacaoDaLeitura.config;
 
+import br.com.yomu.gamificacaoDaLeitura.controller.ProgressoController;
 import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
+import org.springdoc.core.customizers.OperationCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.PostMapping;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Configuration  // Diz ao Spring que esta é uma classe de configuração
@@ -35,4 +41,22 @@ public class SwaggerConfig {
                                 .description("Servidor de Produção")
                 ));
     }
+
+    @Bean  // Documenta o cabeçalho opcional Idempotency-Key nos POST de registro de progresso (ver IdempotenciaFilter)
+    public OperationCustomizer idempotencyKeyCustomizer() {
+        return (operation, handlerMethod) -> {
+            PostMapping post = handlerMethod.getMethodAnnotation(PostMapping.class);
+            if (post != null && handlerMethod.getBeanType() == ProgressoController.class
+                    && Arrays.stream(post.value()).anyMatch(caminho -> caminho.startsWith("/usuario/"))) {
+                operation.addParametersItem(new HeaderParameter()
+                        .name(IdempotenciaFilter.CABECALHO)
+                        .required(false)
+                        .description("Chave única por operação. Repetições com a mesma chave e o mesmo corpo " +
+                                     "devolvem a resposta original (cabeçalho " + IdempotenciaFilter.CABECALHO_REPETIDA +
+                                     ") sem executar de novo")
+                        .schema(new StringSchema().maxLength(255)));
+            }
+            return operation;
+        };
+    }
 }
@@ -1,7 +1,9 @@
 package br.com.yomu.gamificacaoDaLeitura.controller;
 
 import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoCreateDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoLoteDTO;
 import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
+import br.com.yomu.gamificacaoDaLeitura.service.ProgressoDiarioService;
 import br.com.yomu.gamificacaoDaLeitura.service.ProgressoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -31,6 +33,7 @@ import java.util.UUID;
 public class ProgressoController {
 
     private final ProgressoService progressoService;
+    private final ProgressoDiarioService progressoDiarioService;
 
     @PostMapping("/usuario/{usuarioId}/livro/{livroId}")
 @Operation(
@@ -68,6 +71,41 @@ public ResponseEntity<Progresso> registrar(
     return ResponseEntity.status(HttpStatus.CREATED).body(progressoRegistrado);
 }
 
+    // =============== REGISTRAR EM LOTE =========================
+    @PostMapping("/usuario/{usuarioId}/lote")
+    @Operation(
+            summary = "Registrar progressos em lote",
+            description = "Registra de uma vez as sessões de leitura acumuladas offline (até 500). O lote é validado " +
+                          "inteiro: se algum livro não existir, nada é gravado. XP e metas recebem uma única atualização."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Progressos registrados com sucesso",
+                    content = @Content(
+                            examples = @ExampleObject(
+                                    name = "Exemplo de lote",
+                                    value = """
+                                    {
+                                        "progressos": [
+                                            { "livroId": "3fa85f64-5717-4562-b3fc-2c963f66afa6", "quantidade": 12, "tipoProgresso": "PAGINA" },
+                                            { "livroId": "3fa85f64-5717-4562-b3fc-2c963f66afa6", "quantidade": 1, "tipoProgresso": "CAPITULO" }
+                                        ]
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "404", description = "Usuário ou livro não encontrado")
+    })
+    public ResponseEntity<List<Progresso>> registrarLote(
+            @Parameter(description = "ID do usuário", required = true)
+            @PathVariable UUID usuarioId,
+
+            @Valid @RequestBody ProgressoLoteDTO dto) {
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(progressoService.registrarLote(usuarioId, dto));
+    }
+
     // =============== LISTAR POR USUARIO =========================
     @GetMapping("/usuario/{usuarioId}")
     @Operation(summary = "Listar progressos por usuário")
@@ -118,4 +156,17 @@ public ResponseEntity<Progresso> registrar(
         Long xpTotal = progressoService.calcularXpTotal(usuarioId);
         return ResponseEntity.ok(xpTotal);
     }
+
+    // =============== BACKFILL DA CONSOLIDACAO DIARIA =========================
+    @PostMapping("/consolidacao-diaria/backfill")
+    @Operation(
+            summary = "Reconstruir consolidação diária",
+            description = "Recalcula, em lotes de usuários, o XP/páginas/capítulos por dia a partir dos progressos existentes. Operação pesada."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Quantidade de usuários processados")
+    })
+    public ResponseEntity<Integer> backfillConsolidacaoDiaria() {
+        return ResponseEntity.ok(progressoDiarioService.backfill());
+    }
 }
@@ -1,9 +1,20 @@
 package br.com.yomu.gamificacaoDaLeitura.controller;
 
+import br.com.yomu.gamificacaoDaLeitura.dto.HistoricoPosicaoDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.LiderancaStatusDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPaginaDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPercentilDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPosicaoDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.TemporadaDTO;
 import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import br.com.yomu.gamificacaoDaLeitura.service.RankingLiderancaService;
+import br.com.yomu.gamificacaoDaLeitura.service.RankingPercentilService;
+import br.com.yomu.gamificacaoDaLeitura.service.RankingRespostaCache;
 import br.com.yomu.gamificacaoDaLeitura.service.RankingService;
+import br.com.yomu.gamificacaoDaLeitura.service.RankingTemporadaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,9 +23,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -25,21 +42,123 @@ import java.util.UUID;
 public class RankingController {
 
     private final RankingService rankingService;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final RankingPercentilService rankingPercentilService;
+    private final RankingTemporadaService rankingTemporadaService;
 
     @GetMapping("/geral/{periodo}")
     @Operation(summary = "Obter ranking geral", 
-               description = "Retorna o ranking de todos os usuários do sistema para o período especificado")
+               description = "Retorna uma página do ranking geral para o período especificado")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Ranking obtido com sucesso",
+            content = @Content(schema = @Schema(implementation = RankingPaginaDTO.class)))
+    })
+    public ResponseEntity<RankingPaginaDTO> obterRankingGeral(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") 
+            @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "Quantidade de posições (máx. 100)", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Posições a pular a partir do topo", example = "0")
+            @RequestParam(defaultValue = "0") int offset) {
+        return ResponseEntity.ok(rankingService.obterPaginaGeral(periodo, offset, limit));
+    }
+
+    @GetMapping("/geral/{periodo}/usuario/{usuarioId}")
+    @Operation(summary = "Obter posição do usuário no ranking geral", 
+               description = "Retorna a posição do usuário e os usuários imediatamente acima e abaixo dele")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Posição obtida com sucesso",
+            content = @Content(schema = @Schema(implementation = RankingPosicaoDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Usuário não encontrado no ranking",
+            content = @Content)
+    })
+    public ResponseEntity<RankingPosicaoDTO> obterPosicaoRankingGeral(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId,
+            @Parameter(description = "Posições acima e abaixo do usuário (máx. 50)", example = "5")
+            @RequestParam(defaultValue = "5") int janela) {
+        return ResponseEntity.ok(rankingService.obterPosicaoGeral(periodo, usuarioId, janela));
+    }
+
+    @GetMapping("/geral/{periodo}/usuario/{usuarioId}/percentil")
+    @Operation(summary = "Obter percentil do usuário no ranking geral", 
+               description = "Retorna a posição aproximada e o percentil (top X%) do usuário, calculados por um " +
+                             "histograma de XP. No topo do ranking a posição é exata.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Percentil obtido com sucesso",
+            content = @Content(schema = @Schema(implementation = RankingPercentilDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Usuário não encontrado no ranking",
+            content = @Content)
+    })
+    public ResponseEntity<RankingPercentilDTO> obterPercentilRankingGeral(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId) {
+        return ResponseEntity.ok(rankingPercentilService.obter(periodo, usuarioId));
+    }
+
+    @GetMapping("/snapshot/{tipo}/{periodo}")
+    @Operation(summary = "Obter snapshot completo do ranking", 
+               description = "Retorna o JSON completo do último cálculo do ranking, já codificado, sem esperar " +
+                             "recálculo. O header Age traz a idade do snapshot em segundos; se ele estiver velho, " +
+                             "um recálculo é pedido em segundo plano. Suporta ETag/If-None-Match (304) e gzip via Accept-Encoding.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Snapshot obtido com sucesso",
             content = @Content(schema = @Schema(implementation = Map.class))),
-        @ApiResponse(responseCode = "404", description = "Ranking não encontrado. Execute o cálculo primeiro.",
+        @ApiResponse(responseCode = "304", description = "Snapshot não mudou desde a versão informada",
             content = @Content)
     })
-    public ResponseEntity<Map<String, Object>> obterRankingGeral(
-            @Parameter(description = "Período do ranking", example = "SEMANAL") 
-            @PathVariable PeriodoRanking periodo) {
-        Map<String, Object> ranking = rankingService.obterRankingComoMapa(TipoRanking.GERAL, periodo);
-        return ResponseEntity.ok(ranking);
+    public ResponseEntity<byte[]> obterSnapshotRanking(
+            @Parameter(description = "Tipo do ranking", example = "GERAL") @PathVariable TipoRanking tipo,
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RankingRespostaCache.RespostaCodificada resposta = rankingService.obterRankingCodificado(tipo, periodo);
+        Long idade = RankingService.idadeEmSegundos(resposta.atualizadoEm());
+        boolean comGzip = resposta.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = resposta.etag(comGzip);
+
+        if (etagCorresponde(ifNoneMatch, etag)) {
+            ResponseEntity.HeadersBuilder<?> naoModificado = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (idade != null) {
+                naoModificado.header(HttpHeaders.AGE, String.valueOf(idade));
+            }
+            return naoModificado.build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (idade != null) {
+            builder.header(HttpHeaders.AGE, String.valueOf(idade));
+        }
+
+        if (comGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(resposta.gzip());
+        }
+        return builder.body(resposta.json());
+    }
+
+    @GetMapping("/snapshot/{tipo}/{periodo}/usuario/{usuarioId}")
+    @Operation(summary = "Obter posição do usuário no último snapshot", 
+               description = "Busca só a linha do usuário no snapshot persistido, sem carregar o ranking inteiro. " +
+                             "O snapshot geral guarda as primeiras yomu.ranking.snapshot.top-k posições; " +
+                             "abaixo delas a posição vem da consulta do ranking geral.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Posição obtida com sucesso",
+            content = @Content(schema = @Schema(implementation = RankingItemDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Usuário não encontrado no ranking",
+            content = @Content)
+    })
+    public ResponseEntity<RankingItemDTO> obterPosicaoNoSnapshot(
+            @Parameter(description = "Tipo do ranking", example = "GERAL") @PathVariable TipoRanking tipo,
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId) {
+        return ResponseEntity.ok(rankingService.obterPosicaoNoSnapshot(tipo, periodo, usuarioId));
     }
 
     @GetMapping("/amigos/{usuarioId}/{periodo}")
@@ -54,15 +173,8 @@ public class RankingController {
     public ResponseEntity<Map<String, Object>> obterRankingAmigos(
             @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId,
             @Parameter(description = "Período do ranking", example = "MENSAL") @PathVariable PeriodoRanking periodo) {
-        Ranking ranking = rankingService.calcularERankingAmigos(usuarioId, periodo);
-        
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            Map<String, Object> dados = mapper.readValue(ranking.getDados(), Map.class);
-            return ResponseEntity.ok(dados);
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao processar ranking", e);
-        }
+        Map<String, Object> ranking = rankingService.obterRankingAmigos(usuarioId, periodo);
+        return ResponseEntity.ok(ranking);
     }
 
     @PostMapping("/calcular/geral/{periodo}")
@@ -84,10 +196,10 @@ public class RankingController {
     @PostMapping("/calcular/amigos/{usuarioId}/{periodo}")
     @Operation(summary = "Calcular ranking de amigos", 
                description = "Recalcula e retorna o ranking dos amigos de um usuário para o período especificado")
-    public ResponseEntity<Ranking> calcularRankingAmigos(
+    public ResponseEntity<Map<String, Object>> calcularRankingAmigos(
             @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId,
             @Parameter(description = "Período do ranking", example = "TOTAL") @PathVariable PeriodoRanking periodo) {
-        Ranking ranking = rankingService.calcularERankingAmigos(usuarioId, periodo);
+        Map<String, Object> ranking = rankingService.calcularERankingAmigos(usuarioId, periodo);
         return ResponseEntity.ok(ranking);
     }
 
@@ -112,4 +224,69 @@ public class RankingController {
         Ranking ranking = rankingService.obterRanking(tipo, periodo);
         return ResponseEntity.ok(ranking);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/temporadas/{periodo}")
+    @Operation(summary = "Listar temporadas arquivadas", 
+               description = "Lista as temporadas encerradas (semanas, meses ou anos) do período, mais recentes primeiro")
+    public ResponseEntity<List<TemporadaDTO>> listarTemporadas(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "Quantidade de temporadas (máx. yomu.ranking.temporada.cache, 32 por padrão)", example = "12")
+            @RequestParam(defaultValue = "12") int limit) {
+        return ResponseEntity.ok(rankingTemporadaService.listar(periodo, limit));
+    }
+
+    @GetMapping("/temporadas/{periodo}/{inicio}")
+    @Operation(summary = "Obter ranking de uma temporada arquivada", 
+               description = "Retorna o ranking congelado da temporada que contém a data informada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Temporada obtida com sucesso",
+            content = @Content(schema = @Schema(implementation = TemporadaDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Temporada não encontrada",
+            content = @Content)
+    })
+    public ResponseEntity<TemporadaDTO> obterTemporada(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "Uma data dentro da temporada", example = "2025-06-02") @PathVariable LocalDate inicio,
+            @Parameter(description = "Quantidade de posições (máx. 100)", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Posições a pular a partir do topo", example = "0")
+            @RequestParam(defaultValue = "0") int offset) {
+        return ResponseEntity.ok(rankingTemporadaService.obter(periodo, inicio, offset, limit));
+    }
+
+    @GetMapping("/temporadas/{periodo}/usuario/{usuarioId}")
+    @Operation(summary = "Obter histórico de posições do usuário", 
+               description = "Retorna a posição do usuário em cada uma das últimas temporadas arquivadas do período")
+    public ResponseEntity<List<HistoricoPosicaoDTO>> obterHistoricoUsuario(
+            @Parameter(description = "Período do ranking", example = "SEMANAL") @PathVariable PeriodoRanking periodo,
+            @Parameter(description = "UUID do usuário") @PathVariable UUID usuarioId,
+            @Parameter(description = "Quantidade de temporadas (máx. yomu.ranking.temporada.cache, 32 por padrão)", example = "12")
+            @RequestParam(defaultValue = "12") int limit) {
+        return ResponseEntity.ok(rankingTemporadaService.historicoDoUsuario(usuarioId, periodo, limit));
+    }
+
+    @GetMapping("/lideranca")
+    @Operation(summary = "Status da liderança dos rankings", 
+               description = "Retorna a instância líder que faz o recálculo agendado, quando o lease expira " +
+                             "e a duração da última execução")
+    public ResponseEntity<LiderancaStatusDTO> obterStatusLideranca() {
+        return ResponseEntity.ok(rankingLiderancaService.status());
+    }
+
+    // If-None-Match usa comparação fraca: W/"x" corresponde a "x"
+    private static boolean etagCorresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
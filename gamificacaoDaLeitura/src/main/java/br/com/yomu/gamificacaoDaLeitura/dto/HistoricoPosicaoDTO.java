@@ -0,0 +1,27 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricoPosicaoDTO {
+
+    private String periodo;
+
+    private LocalDate inicio;
+
+    private LocalDate fim;
+
+    private Integer posicao;
+
+    private Long xp;
+
+    @JsonProperty("total_usuarios")
+    private Integer totalUsuarios;
+}
@@ -0,0 +1,31 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiderancaStatusDTO {
+
+    private String lider;
+
+    @JsonProperty("instancia_atual")
+    private String instanciaAtual;
+
+    @JsonProperty("sou_lider")
+    private Boolean souLider;
+
+    @JsonProperty("lease_expira_em")
+    private LocalDateTime leaseExpiraEm;
+
+    @JsonProperty("ultima_execucao_em")
+    private LocalDateTime ultimaExecucaoEm;
+
+    @JsonProperty("ultima_duracao_ms")
+    private Long ultimaDuracaoMs;
+}
@@ -0,0 +1,18 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProgressoLoteDTO {
+
+    // Sessões de leitura acumuladas offline pelo app, reenviadas de uma vez
+    @NotEmpty(message = "O lote deve ter ao menos um progresso")
+    @Size(max = 500, message = "O lote aceita no máximo 500 progressos")
+    private List<@Valid @NotNull ProgressoLoteItemDTO> progressos;
+}
@@ -0,0 +1,15 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.UUID;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ProgressoLoteItemDTO extends ProgressoCreateDTO {
+
+    @NotNull(message = "Livro é obrigatório")
+    private UUID livroId;
+}
@@ -0,0 +1,29 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingItemDTO {
+
+    private Integer posicao;
+
+    @JsonProperty("usuario_id")
+    private UUID usuarioId;
+
+    @JsonProperty("nome_usuario")
+    private String nomeUsuario;
+
+    @JsonProperty("foto_perfil")
+    private String fotoPerfil;
+
+    private Integer nivel;
+
+    private Long xp;
+}
@@ -0,0 +1,25 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingPaginaDTO {
+
+    private String periodo;
+
+    @JsonProperty("total_usuarios")
+    private Integer totalUsuarios;
+
+    private Integer offset;
+
+    private Integer limit;
+
+    private List<RankingItemDTO> ranking;
+}
@@ -0,0 +1,39 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingPercentilDTO {
+
+    private String periodo;
+
+    @JsonProperty("usuario_id")
+    private UUID usuarioId;
+
+    private Long xp;
+
+    @JsonProperty("total_usuarios")
+    private Long totalUsuarios;
+
+    // Exata no topo; fora dele, estimada pelo histograma de XP
+    private Long posicao;
+
+    private Boolean exata;
+
+    // Faixa em que a posição real certamente está (igual a posicao quando exata)
+    @JsonProperty("posicao_minima")
+    private Long posicaoMinima;
+
+    @JsonProperty("posicao_maxima")
+    private Long posicaoMaxima;
+
+    // "Top X%": percentual de usuários na posição do usuário ou acima dela
+    private Double percentil;
+}
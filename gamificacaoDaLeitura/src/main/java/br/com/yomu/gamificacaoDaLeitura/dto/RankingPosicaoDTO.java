@@ -0,0 +1,24 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingPosicaoDTO {
+
+    private String periodo;
+
+    @JsonProperty("total_usuarios")
+    private Integer totalUsuarios;
+
+    private RankingItemDTO usuario;
+
+    // Usuários ao redor, incluindo o próprio usuário
+    private List<RankingItemDTO> vizinhos;
+}
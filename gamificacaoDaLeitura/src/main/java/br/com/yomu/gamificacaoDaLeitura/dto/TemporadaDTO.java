@@ -0,0 +1,29 @@
+package br.com.yomu.gamificacaoDaLeitura.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TemporadaDTO {
+
+    private String periodo;
+
+    private LocalDate inicio;
+
+    private LocalDate fim;
+
+    @JsonProperty("total_usuarios")
+    private Integer totalUsuarios;
+
+    // Só preenchido ao consultar uma temporada específica
+    private List<RankingItemDTO> ranking;
+}
@@ -25,7 +25,7 @@ import java.util.UUID;
 public class Amizade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "ID único da amizade", accessMode = Schema.AccessMode.READ_ONLY)
     private UUID id;
 
@@ -0,0 +1,71 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUID versão 7 (RFC 9562): 48 bits de milissegundos Unix, 12 bits de
+ * contador e 62 bits aleatórios.
+ *
+ * Dentro da JVM os ids são estritamente crescentes: no mesmo milissegundo o
+ * contador (que começa num valor aleatório da metade inferior) é
+ * incrementado e, se estourar, o id segue no milissegundo seguinte. Se o
+ * relógio voltar, continua a partir do último id gerado.
+ */
+public class GeradorUuidV7 implements BeforeExecutionGenerator {
+
+    /**
+     * Mesmo formato gerado no banco, para INSERTs nativos (contador aleatório
+     * em vez de sequencial). O Postgres só tem uuidv7() a partir da versão 18.
+     */
+    public static final String SQL =
+            "CAST(encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid()) placing " +
+            "substring(int8send(CAST(floor(extract(epoch FROM clock_timestamp()) * 1000) AS bigint)) FROM 3) " +
+            "FROM 1 FOR 6), 52, 1), 53, 1), 'hex') AS uuid)";
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+    private static final int BITS_CONTADOR = 12;
+
+    // Milissegundos << 12 | contador do último id gerado
+    private static final AtomicLong ULTIMO = new AtomicLong();
+
+    public static UUID gerar() {
+        return gerar(System.currentTimeMillis());
+    }
+
+    static UUID gerar(long agoraMs) {
+        long candidato = (agoraMs << BITS_CONTADOR) | ALEATORIO.nextInt(1 << (BITS_CONTADOR - 1));
+        long marca = ULTIMO.updateAndGet(ultimo -> Math.max(ultimo + 1, candidato));
+        long maisSignificativos = (marca >>> BITS_CONTADOR) << 16     // unix_ts_ms
+                                  | 0x7000L                           // versão
+                                  | (marca & 0xFFFL);                 // contador
+        long menosSignificativos = (ALEATORIO.nextLong() >>> 2) | 0x8000000000000000L; // variante 10
+        return new UUID(maisSignificativos, menosSignificativos);
+    }
+
+    // Instante embutido num UUID v7 (útil para depuração e para conferir a ordem)
+    public static Instant instante(UUID id) {
+        if (id.version() != 7) {
+            throw new IllegalArgumentException("UUID não é versão 7: " + id);
+        }
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return gerar();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
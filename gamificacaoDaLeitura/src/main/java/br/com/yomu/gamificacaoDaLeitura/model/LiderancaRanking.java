@@ -0,0 +1,30 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Lease da instância que recalcula os rankings; os horários vêm do relógio do banco
+@Entity
+@Table(name = "ranking_lideranca")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiderancaRanking {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String lider;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    private LocalDateTime ultimaExecucaoEm;
+
+    private Long ultimaDuracaoMs;
+}
@@ -25,7 +25,7 @@ import java.util.UUID;
 public class Livro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "ID único do livro", accessMode = Schema.AccessMode.READ_ONLY)
     private UUID id;
 
@@ -24,7 +24,7 @@ import java.util.UUID;
 public class Meta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "ID único da meta", accessMode = Schema.AccessMode.READ_ONLY)
     private UUID id;
 
@@ -20,7 +20,7 @@ import java.util.UUID;
 public class Notificacao {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
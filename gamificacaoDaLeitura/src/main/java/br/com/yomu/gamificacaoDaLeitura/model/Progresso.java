@@ -22,7 +22,7 @@ import java.util.UUID;
 public class Progresso{
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO) // Melhora a performance faz com que o banco de dados gere o ID automaticamente
+    @UuidV7 // Ordenado pelo tempo: as inserções vão para o fim do índice da chave primária
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY) // Só sera carregado quando for acessado
@@ -47,6 +47,11 @@ public class Progresso{
     @Column(nullable = false)
     private Long xpGerado;
 
+    // false enquanto o XP ainda não foi somado em usuarios.xp_total (modo write-behind, ver AcumuladorXpService)
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "boolean not null default true")
+    private Boolean xpAplicado = true;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
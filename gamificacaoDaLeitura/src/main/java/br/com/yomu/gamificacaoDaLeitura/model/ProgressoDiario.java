@@ -0,0 +1,48 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Consolidação diária do progresso de cada usuário, usada por rankings e estatísticas
+@Entity
+@Table(name = "progressos_diarios",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"usuario_id", "dia"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressoDiario {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    @JsonIgnore
+    private Usuario usuario;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(nullable = false)
+    private Long xp = 0L;
+
+    @Column(nullable = false)
+    private Integer paginas = 0;
+
+    @Column(nullable = false)
+    private Integer capitulos = 0;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -22,7 +22,7 @@ import java.util.UUID;
 public class Ranking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Enumerated(EnumType.STRING)
@@ -33,10 +33,15 @@ public class Ranking {
     @Column(nullable = false)
     private PeriodoRanking periodoRanking;
 
+    // Só metadados (período, total, data); as posições ficam em ranking_entradas
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb", nullable = false)
     private String dados;
 
+    // Versão de ranking_entradas em uso; trocada na mesma transação que grava a nova
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versaoAtual = 0L;
+
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
@@ -0,0 +1,52 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+// Uma linha do snapshot de um ranking; cada recálculo grava uma nova versão
+@Entity
+@Table(name = "ranking_entradas",
+       indexes = {
+           @Index(name = "idx_ranking_entradas_posicao", columnList = "ranking_id, versao, posicao"),
+           @Index(name = "idx_ranking_entradas_usuario", columnList = "ranking_id, versao, usuario_id")
+       })
+@IdClass(RankingEntrada.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankingEntrada {
+
+    @Id
+    @Column(name = "ranking_id")
+    private UUID rankingId;
+
+    @Id
+    private Long versao;
+
+    // Ordem estável dentro do snapshot; posicao pode repetir em empates
+    @Id
+    private Integer ordem;
+
+    @Column(nullable = false)
+    private Integer posicao;
+
+    @Column(name = "usuario_id", nullable = false)
+    private UUID usuarioId;
+
+    @Column(nullable = false)
+    private Long xp;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Chave implements Serializable {
+        private UUID rankingId;
+        private Long versao;
+        private Integer ordem;
+    }
+}
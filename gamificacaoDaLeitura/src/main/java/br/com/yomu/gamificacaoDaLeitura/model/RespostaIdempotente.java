@@ -0,0 +1,39 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Resposta de um POST com Idempotency-Key; status é null enquanto a requisição original está em andamento
+@Entity
+@Table(name = "respostas_idempotentes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RespostaIdempotente {
+
+    // Método + URI + valor do cabeçalho
+    @Id
+    @Column(length = 1024)
+    private String chave;
+
+    // SHA-256 do corpo: a mesma chave com outro corpo é recusada
+    @Column(nullable = false, length = 64)
+    private String hashRequisicao;
+
+    private Integer status;
+
+    private String contentType;
+
+    @Column(length = 2048)
+    private String location;
+
+    @Column(columnDefinition = "bytea")
+    private byte[] corpo;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+}
@@ -0,0 +1,50 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Ranking congelado de uma temporada encerrada (semana, mês ou ano); nunca é alterado
+@Entity
+@Table(name = "ranking_temporadas",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"periodo_ranking", "inicio"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemporadaRanking {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PeriodoRanking periodoRanking;
+
+    @Column(nullable = false)
+    private LocalDate inicio;
+
+    // Último dia da temporada, inclusive
+    @Column(nullable = false)
+    private LocalDate fim;
+
+    @Column(nullable = false)
+    private Integer totalUsuarios;
+
+    // Posições em formato colunar comprimido, ver ArquivoTemporada
+    @JsonIgnore
+    @Column(nullable = false)
+    private byte[] dados;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
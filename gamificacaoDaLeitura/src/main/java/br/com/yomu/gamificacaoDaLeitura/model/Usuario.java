@@ -26,7 +26,7 @@ import java.util.UUID;
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Schema(description = "Identificador único do usuário", example = "123e4567-e89b-12d3-a456-426614174000")
     private UUID id;
 
@@ -94,6 +94,11 @@ public class Usuario {
     @JsonIgnore
     private List<Progresso> progressos;
 
+    @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Schema(hidden = true)
+    @JsonIgnore
+    private List<ProgressoDiario> progressosDiarios;
+
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true)
     @Schema(hidden = true)
     @JsonIgnore
@@ -123,4 +128,9 @@ public class Usuario {
     @Schema(hidden = true)
     @JsonIgnore
     private List<Indicacao> indicacoesRecebidas;
-}
\ No newline at end of file
+
+    // A cada 1000 XP = 1 nível
+    public static int calcularNivel(long xpTotal) {
+        return (int) (xpTotal / 1000) + 1;
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Id UUID gerado pelo {@link GeradorUuidV7}: ordenado pelo instante de
+ * criação, então as inserções vão para o fim do índice da chave primária em
+ * vez de uma página aleatória. Substitui {@code @GeneratedValue}.
+ */
+@IdGeneratorType(GeradorUuidV7.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
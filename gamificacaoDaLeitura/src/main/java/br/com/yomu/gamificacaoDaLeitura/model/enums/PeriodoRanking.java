@@ -1,24 +1,57 @@
 package br.com.yomu.gamificacaoDaLeitura.model.enums;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
 public enum PeriodoRanking {
-    SEMANAL("Esta Semana", 7),
-    MENSAL("Este Mês", 30),
-    ANUAL("Este Ano", 365),
+    SEMANAL("Esta Semana", ChronoUnit.WEEKS),
+    MENSAL("Este Mês", ChronoUnit.MONTHS),
+    ANUAL("Este Ano", ChronoUnit.YEARS),
     TOTAL("Todo o Período", null);
 
     private final String descricao;
-    private final Integer dias;
+    // Janelas alinhadas ao calendário: semana ISO (segunda a domingo), mês e ano civis
+    private final ChronoUnit unidade;
 
-    PeriodoRanking(String descricao, Integer dias) {
+    PeriodoRanking(String descricao, ChronoUnit unidade) {
         this.descricao = descricao;
-        this.dias = dias;
+        this.unidade = unidade;
     }
 
     public String getDescricao() {
         return descricao;
     }
 
-    public Integer getDias() {
-        return dias;
+    public ChronoUnit getUnidade() {
+        return unidade;
+    }
+
+    // TOTAL não tem janela: soma todo o XP do usuário
+    public boolean possuiJanela() {
+        return unidade != null;
+    }
+
+    /**
+     * Primeiro dia da janela que contém {@code dia}.
+     */
+    public LocalDate inicioEm(LocalDate dia) {
+        return switch (this) {
+            case SEMANAL -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MENSAL -> dia.withDayOfMonth(1);
+            case ANUAL -> dia.withDayOfYear(1);
+            case TOTAL -> throw new IllegalArgumentException("O período TOTAL não tem janela");
+        };
+    }
+
+    /**
+     * Último dia da janela que começa em {@code inicio}.
+     */
+    public LocalDate fimEm(LocalDate inicio) {
+        if (unidade == null) {
+            throw new IllegalArgumentException("O período TOTAL não tem janela");
+        }
+        return inicio.plus(1, unidade).minusDays(1);
     }
-}
\ No newline at end of file
+}
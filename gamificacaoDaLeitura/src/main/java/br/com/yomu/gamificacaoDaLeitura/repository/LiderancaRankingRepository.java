@@ -0,0 +1,37 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.LiderancaRanking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LiderancaRankingRepository extends JpaRepository<LiderancaRanking, String> {
+
+    // Só bloqueia dentro da transação atual: funciona com o PgBouncer em modo transação
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:chave)", nativeQuery = true)
+    boolean tentarBloquear(@Param("chave") long chave);
+
+    // Assume (ou renova) o lease se ele for desta instância ou já tiver expirado; devolve o líder atual
+    @Query(value = "INSERT INTO ranking_lideranca (id, lider, expira_em) " +
+                   "VALUES (:id, :instancia, now() + make_interval(secs => :leaseSegundos)) " +
+                   "ON CONFLICT (id) DO UPDATE SET lider = EXCLUDED.lider, expira_em = EXCLUDED.expira_em " +
+                   "WHERE ranking_lideranca.lider = EXCLUDED.lider OR ranking_lideranca.expira_em < now() " +
+                   "RETURNING lider",
+           nativeQuery = true)
+    Optional<String> assumir(
+        @Param("id") String id,
+        @Param("instancia") String instancia,
+        @Param("leaseSegundos") double leaseSegundos
+    );
+
+    @Modifying
+    @Query(value = "UPDATE ranking_lideranca SET ultima_execucao_em = now(), ultima_duracao_ms = :duracaoMs " +
+                   "WHERE id = :id AND lider = :instancia",
+           nativeQuery = true)
+    int registrarExecucao(@Param("id") String id, @Param("instancia") String instancia, @Param("duracaoMs") long duracaoMs);
+}
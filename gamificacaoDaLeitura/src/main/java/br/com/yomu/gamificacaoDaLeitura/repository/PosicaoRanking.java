@@ -0,0 +1,23 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import java.util.UUID;
+
+// Linha da view ranking_posicoes junto com o perfil do usuário
+public interface PosicaoRanking {
+
+    UUID getUsuarioId();
+
+    String getNomeUsuario();
+
+    String getFotoPerfil();
+
+    Integer getNivelAtual();
+
+    Long getXp();
+
+    // RANK(): empatados dividem a posição
+    Long getPosicao();
+
+    // ROW_NUMBER(): ordem estável usada para paginar
+    Long getOrdem();
+}
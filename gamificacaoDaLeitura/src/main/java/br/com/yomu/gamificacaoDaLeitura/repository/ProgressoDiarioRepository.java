@@ -0,0 +1,82 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.GeradorUuidV7;
+import br.com.yomu.gamificacaoDaLeitura.model.ProgressoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface ProgressoDiarioRepository extends JpaRepository<ProgressoDiario, UUID> {
+
+    List<ProgressoDiario> findByUsuarioIdAndDiaBetweenOrderByDia(UUID usuarioId, LocalDate inicio, LocalDate fim);
+
+    // Linhas a partir de um dia, lidas em cursor (como UsuarioRepository.streamParaRanking)
+    // para montar todos os períodos numa única passada
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.usuario.id AS usuarioId, d.dia AS dia, d.xp AS xp FROM ProgressoDiario d WHERE d.dia >= :inicio")
+    Stream<XpDiario> streamDesde(@Param("inicio") LocalDate inicio);
+
+    // As mesmas linhas de um só usuário (índice único usuario_id, dia)
+    @Query("SELECT d.usuario.id AS usuarioId, d.dia AS dia, d.xp AS xp FROM ProgressoDiario d " +
+           "WHERE d.usuario.id = :usuarioId AND d.dia >= :inicio")
+    List<XpDiario> buscarDoUsuarioDesde(@Param("usuarioId") UUID usuarioId, @Param("inicio") LocalDate inicio);
+
+    // XP de cada usuário num intervalo fechado de dias, para arquivar uma temporada
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT d.usuario.id AS usuarioId, SUM(d.xp) AS xp FROM ProgressoDiario d " +
+           "WHERE d.dia BETWEEN :inicio AND :fim GROUP BY d.usuario.id HAVING SUM(d.xp) > 0")
+    Stream<XpPorUsuario> streamSomaEntre(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    // Soma o progresso ao dia do usuário, criando a linha se ainda não existir
+    @Modifying
+    @Query(value = "INSERT INTO progressos_diarios (id, usuario_id, dia, xp, paginas, capitulos, updated_at) " +
+                   "VALUES (" + GeradorUuidV7.SQL + ", :usuarioId, :dia, :xp, :paginas, :capitulos, now()) " +
+                   "ON CONFLICT (usuario_id, dia) DO UPDATE SET " +
+                   "xp = progressos_diarios.xp + EXCLUDED.xp, " +
+                   "paginas = progressos_diarios.paginas + EXCLUDED.paginas, " +
+                   "capitulos = progressos_diarios.capitulos + EXCLUDED.capitulos, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    void acumular(
+        @Param("usuarioId") UUID usuarioId,
+        @Param("dia") LocalDate dia,
+        @Param("xp") long xp,
+        @Param("paginas") int paginas,
+        @Param("capitulos") int capitulos
+    );
+
+    // Recalcula a consolidação dos usuários informados a partir dos progressos brutos. created_at
+    // está no fuso da JVM; o dia da consolidação é o do fuso dos rankings.
+    // Progressos nunca são apagados, então a soma certa é sempre a maior: o GREATEST
+    // preserva um acumular() que confirmou entre o SUM e o upsert e não entrou na soma
+    @Modifying
+    @Query(value = "INSERT INTO progressos_diarios (id, usuario_id, dia, xp, paginas, capitulos, updated_at) " +
+                   "SELECT " + GeradorUuidV7.SQL + ", p.usuario_id, CAST((p.created_at AT TIME ZONE :fusoJvm) AT TIME ZONE :fusoRanking AS date), SUM(p.xp_gerado), " +
+                   "SUM(CASE WHEN p.tipo_progresso = 'PAGINA' THEN p.quantidade ELSE 0 END), " +
+                   "SUM(CASE WHEN p.tipo_progresso = 'CAPITULO' THEN p.quantidade ELSE 0 END), now() " +
+                   "FROM progressos p WHERE p.usuario_id IN (:usuarioIds) " +
+                   "GROUP BY 2, 3 " +
+                   "ON CONFLICT (usuario_id, dia) DO UPDATE SET " +
+                   "xp = GREATEST(progressos_diarios.xp, EXCLUDED.xp), " +
+                   "paginas = GREATEST(progressos_diarios.paginas, EXCLUDED.paginas), " +
+                   "capitulos = GREATEST(progressos_diarios.capitulos, EXCLUDED.capitulos), " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    int consolidarUsuarios(
+        @Param("usuarioIds") Collection<UUID> usuarioIds,
+        @Param("fusoJvm") String fusoJvm,
+        @Param("fusoRanking") String fusoRanking
+    );
+}
@@ -7,12 +7,22 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProgressoRepository extends JpaRepository<Progresso, UUID> {
-    
+
+    // Marca os progressos pendentes como aplicados (CTE "aplicados") e soma o XP deles em usuarios
+    // na mesma instrução. Cada linha só é somada uma vez, mesmo com várias instâncias descarregando juntas.
+    String SOMAR_APLICADOS =
+        "somas AS (SELECT usuario_id, SUM(xp_gerado) AS delta FROM aplicados GROUP BY usuario_id) " +
+        "UPDATE usuarios u SET xp_total = u.xp_total + s.delta, " +
+        "nivel_atual = CAST((u.xp_total + s.delta) / 1000 + 1 AS integer), updated_at = LOCALTIMESTAMP " +
+        "FROM somas s WHERE u.id = s.usuario_id " +
+        "RETURNING u.id AS usuarioId, u.xp_total AS xpTotal, u.nivel_atual AS nivelAtual, s.delta AS delta";
+
     List<Progresso> findByLivroId(UUID livroId);
     
     List<Progresso> findByUsuarioId(UUID usuarioId);
@@ -29,4 +39,17 @@ public interface ProgressoRepository extends JpaRepository<Progresso, UUID> {
     
     @Query("SELECT SUM(p.xpGerado) FROM Progresso p WHERE p.usuario.id = :usuarioId")
     Long calcularXpTotalUsuario(@Param("usuarioId") UUID usuarioId);
+
+    @Query(value = "WITH aplicados AS (" +
+                   "UPDATE progressos SET xp_aplicado = true WHERE NOT xp_aplicado AND usuario_id IN (:usuarioIds) " +
+                   "RETURNING usuario_id, xp_gerado), " + SOMAR_APLICADOS,
+           nativeQuery = true)
+    List<XpDescarregado> aplicarXpPendente(@Param("usuarioIds") Collection<UUID> usuarioIds);
+
+    // Reconciliação: todos os pendentes, inclusive os que uma instância não descarregou antes de cair
+    @Query(value = "WITH aplicados AS (" +
+                   "UPDATE progressos SET xp_aplicado = true WHERE NOT xp_aplicado " +
+                   "RETURNING usuario_id, xp_gerado), " + SOMAR_APLICADOS,
+           nativeQuery = true)
+    List<XpDescarregado> aplicarTodoXpPendente();
 }
@@ -0,0 +1,40 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.RankingEntrada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RankingEntradaRepository extends JpaRepository<RankingEntrada, RankingEntrada.Chave> {
+
+    String COLUNAS_POSICAO = "SELECT e.usuario_id AS usuarioId, u.nome_usuario AS nomeUsuario, " +
+                             "u.foto_perfil AS fotoPerfil, u.nivel_atual AS nivelAtual, e.xp AS xp, " +
+                             "e.posicao AS posicao, e.ordem AS ordem " +
+                             "FROM ranking_entradas e JOIN usuarios u ON u.id = e.usuario_id ";
+
+    // Snapshot inteiro na ordem: chave primária (ranking_id, versao, ordem)
+    @Query(value = COLUNAS_POSICAO + "WHERE e.ranking_id = :rankingId AND e.versao = :versao ORDER BY e.ordem",
+           nativeQuery = true)
+    List<PosicaoRanking> listarVersao(@Param("rankingId") UUID rankingId, @Param("versao") long versao);
+
+    // Posição de um usuário: índice (ranking_id, versao, usuario_id)
+    @Query(value = COLUNAS_POSICAO + "WHERE e.ranking_id = :rankingId AND e.versao = :versao AND e.usuario_id = :usuarioId",
+           nativeQuery = true)
+    Optional<PosicaoRanking> buscarUsuario(
+        @Param("rankingId") UUID rankingId,
+        @Param("versao") long versao,
+        @Param("usuarioId") UUID usuarioId
+    );
+
+    // Remove as versões mais antigas que a informada
+    @Modifying
+    @Query(value = "DELETE FROM ranking_entradas WHERE ranking_id = :rankingId AND versao < :versao", nativeQuery = true)
+    int apagarVersoesAnteriores(@Param("rankingId") UUID rankingId, @Param("versao") long versao);
+}
@@ -3,7 +3,11 @@ package br.com.yomu.gamificacaoDaLeitura.repository;
 import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,6 +20,11 @@ public interface RankingRepository extends JpaRepository<Ranking, UUID> {
     // Busca ranking específico por tipo e período
     Optional<Ranking> findByTipoRankingAndPeriodoRanking(TipoRanking tipoRanking, PeriodoRanking periodoRanking);
 
+    // Trava a linha enquanto uma nova versão do snapshot é gravada
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Ranking r WHERE r.tipoRanking = :tipo AND r.periodoRanking = :periodo")
+    Optional<Ranking> buscarParaAtualizar(@Param("tipo") TipoRanking tipo, @Param("periodo") PeriodoRanking periodo);
+
     // Busca todos os rankings de um tipo específico
     List<Ranking> findByTipoRanking(TipoRanking tipoRanking);
 
@@ -27,4 +36,29 @@ public interface RankingRepository extends JpaRepository<Ranking, UUID> {
 
     // Deleta ranking por tipo e período
     void deleteByTipoRankingAndPeriodoRanking(TipoRanking tipoRanking, PeriodoRanking periodoRanking);
-}
\ No newline at end of file
+
+    // 🔶 Ranking calculado no banco (view materializada ranking_posicoes, ver RankingBancoService)
+
+    String COLUNAS_POSICAO = "SELECT r.usuario_id AS usuarioId, u.nome_usuario AS nomeUsuario, " +
+                             "u.foto_perfil AS fotoPerfil, u.nivel_atual AS nivelAtual, r.xp AS xp, " +
+                             "r.posicao AS posicao, r.ordem AS ordem " +
+                             "FROM ranking_posicoes r JOIN usuarios u ON u.id = r.usuario_id ";
+
+    // Página N: índice (periodo, ordem)
+    @Query(value = COLUNAS_POSICAO + "WHERE r.periodo = :periodo AND r.ordem > :offset ORDER BY r.ordem LIMIT :limite",
+           nativeQuery = true)
+    List<PosicaoRanking> buscarPagina(@Param("periodo") String periodo, @Param("offset") long offset, @Param("limite") int limite);
+
+    // Posição do usuário X: índice único (periodo, usuario_id)
+    @Query(value = COLUNAS_POSICAO + "WHERE r.periodo = :periodo AND r.usuario_id = :usuarioId", nativeQuery = true)
+    Optional<PosicaoRanking> buscarPosicao(@Param("periodo") String periodo, @Param("usuarioId") UUID usuarioId);
+
+    @Query(value = COLUNAS_POSICAO + "WHERE r.periodo = :periodo AND r.ordem BETWEEN :de AND :ate ORDER BY r.ordem",
+           nativeQuery = true)
+    List<PosicaoRanking> buscarFaixa(@Param("periodo") String periodo, @Param("de") long de, @Param("ate") long ate);
+
+    // ordem é um ROW_NUMBER(), então a maior é o total de linhas: uma leitura no índice (periodo, ordem)
+    // em vez de um COUNT(*) sobre o período inteiro
+    @Query(value = "SELECT COALESCE(MAX(ordem), 0) FROM ranking_posicoes WHERE periodo = :periodo", nativeQuery = true)
+    long ultimaOrdem(@Param("periodo") String periodo);
+}
@@ -0,0 +1,48 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.RespostaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    // Reserva a chave. Uma reserva abandonada (instância que caiu no meio da requisição) pode ser retomada depois de expirar
+    @Query(value = "INSERT INTO respostas_idempotentes (chave, hash_requisicao, criado_em) VALUES (:chave, :hash, now()) " +
+                   "ON CONFLICT (chave) DO UPDATE SET hash_requisicao = EXCLUDED.hash_requisicao, criado_em = EXCLUDED.criado_em " +
+                   "WHERE respostas_idempotentes.status IS NULL " +
+                   "AND respostas_idempotentes.criado_em < now() - make_interval(secs => :expiraSegundos) " +
+                   "RETURNING chave",
+           nativeQuery = true)
+    Optional<String> reservar(
+        @Param("chave") String chave,
+        @Param("hash") String hash,
+        @Param("expiraSegundos") double expiraSegundos
+    );
+
+    @Modifying
+    @Query(value = "UPDATE respostas_idempotentes SET status = :status, content_type = :contentType, location = :location, " +
+                   "corpo = :corpo WHERE chave = :chave AND status IS NULL",
+           nativeQuery = true)
+    int concluir(
+        @Param("chave") String chave,
+        @Param("status") int status,
+        @Param("contentType") String contentType,
+        @Param("location") String location,
+        @Param("corpo") byte[] corpo
+    );
+
+    @Modifying
+    @Query(value = "DELETE FROM respostas_idempotentes WHERE chave = :chave AND status IS NULL", nativeQuery = true)
+    int liberar(@Param("chave") String chave);
+
+    @Modifying
+    @Query(value = "DELETE FROM respostas_idempotentes WHERE criado_em < now() - make_interval(secs => :ttlSegundos)",
+           nativeQuery = true)
+    int removerExpiradas(@Param("ttlSegundos") double ttlSegundos);
+}
@@ -0,0 +1,31 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.TemporadaRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TemporadaRankingRepository extends JpaRepository<TemporadaRanking, UUID> {
+
+    boolean existsByPeriodoRankingAndInicio(PeriodoRanking periodoRanking, LocalDate inicio);
+
+    @Query("SELECT t.id AS id, t.periodoRanking AS periodoRanking, t.inicio AS inicio, t.fim AS fim, " +
+           "t.totalUsuarios AS totalUsuarios FROM TemporadaRanking t " +
+           "WHERE t.periodoRanking = :periodo AND t.inicio = :inicio")
+    Optional<TemporadaResumo> buscarResumo(@Param("periodo") PeriodoRanking periodo, @Param("inicio") LocalDate inicio);
+
+    // Mais recentes primeiro, sem o campo dados
+    @Query("SELECT t.id AS id, t.periodoRanking AS periodoRanking, t.inicio AS inicio, t.fim AS fim, " +
+           "t.totalUsuarios AS totalUsuarios FROM TemporadaRanking t " +
+           "WHERE t.periodoRanking = :periodo ORDER BY t.inicio DESC")
+    List<TemporadaResumo> listarResumos(@Param("periodo") PeriodoRanking periodo, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Metadados de uma temporada arquivada, sem carregar as posições
+public interface TemporadaResumo {
+
+    UUID getId();
+
+    PeriodoRanking getPeriodoRanking();
+
+    LocalDate getInicio();
+
+    LocalDate getFim();
+
+    Integer getTotalUsuarios();
+}
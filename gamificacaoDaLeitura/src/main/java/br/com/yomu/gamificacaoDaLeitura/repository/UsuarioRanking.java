@@ -0,0 +1,17 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import java.util.UUID;
+
+// Projeção com só o que o ranking exibe, lida sem carregar a entidade Usuario
+public interface UsuarioRanking {
+
+    UUID getId();
+
+    String getNomeUsuario();
+
+    String getFotoPerfil();
+
+    Integer getNivelAtual();
+
+    Long getXpTotal();
+}
@@ -1,14 +1,29 @@
 package br.com.yomu.gamificacaoDaLeitura.repository;
 
 import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, UUID> {
+
+    // Mesma regra de Usuario.calcularNivel (1000 XP por nível), avaliada sobre o XP já somado
+    String INCREMENTAR_XP = "UPDATE usuarios SET xp_total = xp_total + :delta, " +
+                            "nivel_atual = CAST((xp_total + :delta) / 1000 + 1 AS integer), " +
+                            "updated_at = LOCALTIMESTAMP " +
+                            "WHERE id = :usuarioId " +
+                            "RETURNING xp_total AS xpTotal, nivel_atual AS nivelAtual";
     
     Optional<Usuario> findByEmail(String email);
     
@@ -19,4 +34,25 @@ public interface UsuarioRepository extends JpaRepository<Usuario, UUID> {
     boolean existsByEmail(String email);
     
     boolean existsByNomeUsuario(String nomeUsuario);
-}
\ No newline at end of file
+
+    // Paginação por chave (keyset) para processar usuários em lotes
+    @Query("SELECT u.id FROM Usuario u WHERE u.id > :ultimoId ORDER BY u.id")
+    List<UUID> findIdsApos(@Param("ultimoId") UUID ultimoId, Pageable pageable);
+
+    // Cursor só de avanço: o driver traz as linhas em blocos, sem montar a lista inteira.
+    // Deve ser consumido (e fechado) dentro de uma transação.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id AS id, u.nomeUsuario AS nomeUsuario, u.fotoPerfil AS fotoPerfil, " +
+           "u.nivelAtual AS nivelAtual, u.xpTotal AS xpTotal FROM Usuario u")
+    Stream<UsuarioRanking> streamParaRanking();
+
+    // Um usuário no mesmo formato, para reler o XP dele nos placares
+    @Query("SELECT u.id AS id, u.nomeUsuario AS nomeUsuario, u.fotoPerfil AS fotoPerfil, " +
+           "u.nivelAtual AS nivelAtual, u.xpTotal AS xpTotal FROM Usuario u WHERE u.id = :id")
+    Optional<UsuarioRanking> buscarParaRanking(@Param("id") UUID id);
+
+    // Soma o XP numa única instrução: sem SELECT antes e sem perder incrementos concorrentes.
+    // Vazio se o usuário não existir. Deve rodar dentro de uma transação de escrita.
+    @Query(value = INCREMENTAR_XP, nativeQuery = true)
+    Optional<XpAtualizado> incrementarXp(@Param("usuarioId") UUID usuarioId, @Param("delta") long delta);
+}
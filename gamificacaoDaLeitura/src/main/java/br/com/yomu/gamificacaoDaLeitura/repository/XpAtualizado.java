@@ -0,0 +1,9 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+// XP e nível do usuário logo depois do incremento atômico
+public interface XpAtualizado {
+
+    Long getXpTotal();
+
+    Integer getNivelAtual();
+}
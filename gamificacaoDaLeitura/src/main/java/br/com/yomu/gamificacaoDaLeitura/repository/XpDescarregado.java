@@ -0,0 +1,15 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import java.util.UUID;
+
+// XP pendente somado em usuarios por um descarregamento do modo write-behind
+public interface XpDescarregado {
+
+    UUID getUsuarioId();
+
+    Long getXpTotal();
+
+    Integer getNivelAtual();
+
+    Long getDelta();
+}
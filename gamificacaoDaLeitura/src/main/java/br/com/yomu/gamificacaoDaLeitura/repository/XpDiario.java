@@ -0,0 +1,14 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Projeção de uma linha da consolidação diária
+public interface XpDiario {
+
+    UUID getUsuarioId();
+
+    LocalDate getDia();
+
+    Long getXp();
+}
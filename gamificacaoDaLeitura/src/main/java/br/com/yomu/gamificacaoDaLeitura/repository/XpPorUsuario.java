@@ -0,0 +1,11 @@
+package br.com.yomu.gamificacaoDaLeitura.repository;
+
+import java.util.UUID;
+
+// Projeção do XP somado de um usuário num intervalo de dias
+public interface XpPorUsuario {
+
+    UUID getUsuarioId();
+
+    Long getXp();
+}
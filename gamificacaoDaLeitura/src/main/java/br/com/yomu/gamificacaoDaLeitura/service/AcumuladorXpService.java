@@ -0,0 +1,207 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpDescarregado;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modo write-behind do XP ({@code yomu.xp.write-behind.habilitado=true}).
+ *
+ * Em vez de um UPDATE em usuarios a cada progresso, o progresso é gravado com
+ * xp_aplicado = false e o XP entra num acumulador em memória (um LongAdder por
+ * usuário). A cada poucos segundos, e no desligamento, os usuários com XP
+ * pendente são descarregados em lote: uma única instrução marca os progressos
+ * como aplicados e soma o XP deles em usuarios.
+ *
+ * Os progressos continuam sendo a fonte da verdade: o que é somado vem das
+ * linhas pendentes no banco, não do acumulador, então cada progresso conta
+ * uma vez só. Se uma instância cair antes de descarregar, a reconciliação na
+ * inicialização (de qualquer instância) aplica o que ficou pendente.
+ */
+@Service
+@Slf4j
+public class AcumuladorXpService {
+
+    private static final int USUARIOS_POR_LOTE = 500;
+
+    private final ProgressoRepository progressoRepository;
+    private final NotificacaoService notificacaoService;
+    private final CacheInvalidacaoService cacheInvalidacaoService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    // Escritas compartilham o lock de leitura; só a troca do mapa no descarregamento é exclusiva
+    private final ReentrantReadWriteLock troca = new ReentrantReadWriteLock();
+    private Map<UUID, LongAdder> pendentes = new ConcurrentHashMap<>();
+
+    public AcumuladorXpService(
+            ProgressoRepository progressoRepository,
+            NotificacaoService notificacaoService,
+            CacheInvalidacaoService cacheInvalidacaoService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${yomu.xp.write-behind.habilitado:false}") boolean habilitado) {
+        this.progressoRepository = progressoRepository;
+        this.notificacaoService = notificacaoService;
+        this.cacheInvalidacaoService = cacheInvalidacaoService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        meterRegistry.gauge("xp.write-behind.pendente", this, AcumuladorXpService::xpPendente);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Acumula o XP depois do commit da transação atual: se ela for desfeita, o
+     * progresso não existe e não há o que descarregar.
+     */
+    public void acumular(UUID usuarioId, long xp) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    somar(usuarioId, xp);
+                }
+            });
+        } else {
+            somar(usuarioId, xp);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${yomu.xp.write-behind.intervalo-ms:2000}")
+    public synchronized void descarregar() {
+        Map<UUID, LongAdder> lote;
+        troca.writeLock().lock();
+        try {
+            if (pendentes.isEmpty()) {
+                return;
+            }
+            lote = pendentes;
+            pendentes = new ConcurrentHashMap<>();
+        } finally {
+            troca.writeLock().unlock();
+        }
+
+        long inicio = System.currentTimeMillis();
+        List<UUID> usuarios = new ArrayList<>(lote.keySet());
+        int aplicados = 0;
+        for (int i = 0; i < usuarios.size(); i += USUARIOS_POR_LOTE) {
+            List<UUID> parte = usuarios.subList(i, Math.min(i + USUARIOS_POR_LOTE, usuarios.size()));
+            try {
+                aplicados += aplicar(transactionTemplate.execute(status -> progressoRepository.aplicarXpPendente(parte)));
+            } catch (Exception e) {
+                // Os progressos continuam pendentes no banco: devolve os usuários para a próxima rodada
+                log.error("❌ Erro ao descarregar XP de {} usuários: {}", parte.size(), e.getMessage(), e);
+                for (UUID usuarioId : parte) {
+                    somar(usuarioId, lote.get(usuarioId).sum());
+                }
+            }
+        }
+        log.debug("💾 XP descarregado: {} de {} usuários em {} ms", aplicados, usuarios.size(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Aplica o XP de progressos que ficaram pendentes (instância que caiu antes
+     * de descarregar, ou modo write-behind desligado depois de ter sido usado).
+     * Roda em toda inicialização, com o modo habilitado ou não.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconciliar() {
+        garantirIndicePendentes();
+        int usuarios = aplicar(transactionTemplate.execute(status -> progressoRepository.aplicarTodoXpPendente()));
+        if (usuarios > 0) {
+            log.info("🩹 Reconciliação de XP: pendências de {} usuários aplicadas", usuarios);
+        }
+    }
+
+    /**
+     * Índice parcial só das linhas pendentes, que são poucas. O JPA não declara
+     * índices parciais, então ele é criado aqui, e só se ainda não existir: com
+     * CONCURRENTLY, em auto-commit, os registros de progresso seguem gravando
+     * durante a construção. Uma construção interrompida deixa o índice inválido,
+     * que é descartado e refeito. Sem o índice a reconciliação só fica mais lenta.
+     */
+    private void garantirIndicePendentes() {
+        try {
+            List<Boolean> valido = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_class c JOIN pg_index i ON i.indexrelid = c.oid " +
+                "WHERE c.relname = 'idx_progressos_xp_pendente'", Boolean.class);
+            if (!valido.isEmpty() && valido.get(0)) {
+                return;
+            }
+            if (!valido.isEmpty()) {
+                jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS idx_progressos_xp_pendente");
+            }
+            log.info("🗂️  Criando o índice idx_progressos_xp_pendente");
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_progressos_xp_pendente " +
+                                 "ON progressos (usuario_id) WHERE NOT xp_aplicado");
+        } catch (Exception e) {
+            log.warn("⚠️  Não foi possível criar o índice de XP pendente: {}", e.getMessage());
+        }
+    }
+
+    // O pool de conexões é dependência deste bean, então ainda está aberto aqui
+    @PreDestroy
+    public void encerrar() {
+        if (habilitado) {
+            descarregar();
+        }
+    }
+
+    private void somar(UUID usuarioId, long xp) {
+        troca.readLock().lock();
+        try {
+            pendentes.computeIfAbsent(usuarioId, id -> new LongAdder()).add(xp);
+        } finally {
+            troca.readLock().unlock();
+        }
+    }
+
+    // Já fora da transação do descarregamento: notificações só veem XP gravado. Os placares
+    // releem o xp_total só agora; os das janelas já tinham visto a consolidação diária no registro
+    private int aplicar(List<XpDescarregado> descarregados) {
+        for (XpDescarregado xp : descarregados) {
+            cacheInvalidacaoService.publicar(RankingAsyncService.NAMESPACE_XP, xp.getUsuarioId());
+            if (Usuario.calcularNivel(xp.getXpTotal() - xp.getDelta()) < xp.getNivelAtual()) {
+                log.info("⭐ Usuário {} alcançou o nível {}", xp.getUsuarioId(), xp.getNivelAtual());
+                notificacaoService.notificarNivel(xp.getUsuarioId(), xp.getNivelAtual(), xp.getXpTotal());
+            }
+        }
+        return descarregados.size();
+    }
+
+    private double xpPendente() {
+        troca.readLock().lock();
+        try {
+            return pendentes.values().stream().mapToLong(LongAdder::sum).sum();
+        } finally {
+            troca.readLock().unlock();
+        }
+    }
+}
@@ -18,6 +18,7 @@ public class AmizadeService {
 
     private final AmizadeRepository amizadeRepository;
     private final UsuarioService usuarioService;
+    private final RankingAmigosService rankingAmigosService;
 
     @Transactional
     public Amizade enviarSolicitacao(UUID usuarioId1, UUID usuarioId2) {
@@ -49,7 +50,9 @@ public class AmizadeService {
         amizade.setStatus(StatusAmizade.ACEITA);
         amizade.setDataAceite(LocalDateTime.now());
         
-        return amizadeRepository.save(amizade);
+        Amizade amizadeSalva = amizadeRepository.save(amizade);
+        invalidarRankingsAmigos(amizadeSalva);
+        return amizadeSalva;
     }
 
     @Transactional
@@ -59,6 +62,7 @@ public class AmizadeService {
         
         amizade.setStatus(StatusAmizade.BLOQUEADA);
         amizadeRepository.save(amizade);
+        invalidarRankingsAmigos(amizade);
     }
 
     public List<Amizade> listarSolicitacoesPendentes(UUID usuarioId) {
@@ -71,6 +75,12 @@ public class AmizadeService {
 
     @Transactional
     public void removerAmizade(UUID amizadeId) {
+        amizadeRepository.findById(amizadeId).ifPresent(this::invalidarRankingsAmigos);
         amizadeRepository.deleteById(amizadeId);
     }
+
+    private void invalidarRankingsAmigos(Amizade amizade) {
+        rankingAmigosService.invalidar(amizade.getUsuarioId1().getId());
+        rankingAmigosService.invalidar(amizade.getUsuarioId2().getId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ranking imutável de uma temporada, no formato guardado em
+ * TemporadaRanking.dados: colunas (bits altos e baixos dos UUIDs, XP) na
+ * ordem do ranking, comprimidas com gzip. O XP é gravado como a diferença para
+ * o anterior, em varint, já que a coluna é decrescente; a posição (com empates,
+ * como RANK()) é derivada do XP na leitura.
+ *
+ * Depois de decodificado, um índice ordenado por UUID permite achar a posição
+ * de um usuário por busca binária.
+ */
+public final class ArquivoTemporada {
+
+    private static final int VERSAO_FORMATO = 1;
+
+    public record Linha(UUID usuarioId, long xp) {}
+
+    public record Posicao(UUID usuarioId, int posicao, long xp) {}
+
+    private final long[] msb;
+    private final long[] lsb;
+    private final long[] xp;
+    private final int[] posicao;
+    // Ordens do ranking ordenadas por UUID
+    private final int[] porUsuario;
+
+    private ArquivoTemporada(long[] msb, long[] lsb, long[] xp) {
+        this.msb = msb;
+        this.lsb = lsb;
+        this.xp = xp;
+        this.posicao = new int[xp.length];
+        for (int i = 0; i < xp.length; i++) {
+            posicao[i] = i > 0 && xp[i] == xp[i - 1] ? posicao[i - 1] : i + 1;
+        }
+        this.porUsuario = indexarPorUsuario();
+    }
+
+    /**
+     * Ordena as linhas (XP decrescente, depois UUID) e codifica.
+     */
+    public static byte[] codificar(List<Linha> linhas) {
+        List<Linha> ordenadas = new ArrayList<>(linhas);
+        ordenadas.sort((a, b) -> a.xp() != b.xp() ? Long.compare(b.xp(), a.xp()) : a.usuarioId().compareTo(b.usuarioId()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(ordenadas.size() * 8 + 64);
+        try (DataOutputStream saida = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            saida.writeInt(VERSAO_FORMATO);
+            saida.writeInt(ordenadas.size());
+            for (Linha linha : ordenadas) {
+                saida.writeLong(linha.usuarioId().getMostSignificantBits());
+            }
+            for (Linha linha : ordenadas) {
+                saida.writeLong(linha.usuarioId().getLeastSignificantBits());
+            }
+            long anterior = ordenadas.isEmpty() ? 0 : ordenadas.get(0).xp();
+            saida.writeLong(anterior);
+            for (Linha linha : ordenadas) {
+                escreverVarint(saida, anterior - linha.xp());
+                anterior = linha.xp();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao codificar temporada", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ArquivoTemporada decodificar(byte[] dados) {
+        try (DataInputStream entrada = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(dados)))) {
+            int versao = entrada.readInt();
+            if (versao != VERSAO_FORMATO) {
+                throw new IllegalStateException("Formato de temporada desconhecido: " + versao);
+            }
+            int tamanho = entrada.readInt();
+            long[] msb = new long[tamanho];
+            long[] lsb = new long[tamanho];
+            long[] xp = new long[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                msb[i] = entrada.readLong();
+            }
+            for (int i = 0; i < tamanho; i++) {
+                lsb[i] = entrada.readLong();
+            }
+            long atual = entrada.readLong();
+            for (int i = 0; i < tamanho; i++) {
+                atual -= lerVarint(entrada);
+                xp[i] = atual;
+            }
+            return new ArquivoTemporada(msb, lsb, xp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao decodificar temporada", e);
+        }
+    }
+
+    public int tamanho() {
+        return xp.length;
+    }
+
+    /**
+     * Retorna até {@code limite} posições a partir de {@code offset} (0-based).
+     */
+    public List<Posicao> faixa(int offset, int limite) {
+        int inicio = Math.max(0, offset);
+        int fim = (int) Math.min((long) inicio + Math.max(0, limite), xp.length);
+        List<Posicao> resultado = new ArrayList<>(Math.max(0, fim - inicio));
+        for (int i = inicio; i < fim; i++) {
+            resultado.add(new Posicao(new UUID(msb[i], lsb[i]), posicao[i], xp[i]));
+        }
+        return resultado;
+    }
+
+    public Posicao buscar(UUID usuarioId) {
+        long m = usuarioId.getMostSignificantBits();
+        long l = usuarioId.getLeastSignificantBits();
+        int baixo = 0;
+        int alto = porUsuario.length - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int i = porUsuario[meio];
+            int cmp = Long.compare(msb[i], m);
+            if (cmp == 0) {
+                cmp = Long.compare(lsb[i], l);
+            }
+            if (cmp == 0) {
+                return new Posicao(usuarioId, posicao[i], xp[i]);
+            }
+            if (cmp < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio - 1;
+            }
+        }
+        return null;
+    }
+
+    // Mesma ordem de UUID.compareTo (comparação com sinal de cada metade)
+    private int[] indexarPorUsuario() {
+        Integer[] ordem = new Integer[xp.length];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (a, b) -> {
+            int cmp = Long.compare(msb[a], msb[b]);
+            return cmp != 0 ? cmp : Long.compare(lsb[a], lsb[b]);
+        });
+        int[] resultado = new int[ordem.length];
+        for (int i = 0; i < ordem.length; i++) {
+            resultado[i] = ordem[i];
+        }
+        return resultado;
+    }
+
+    private static void escreverVarint(DataOutputStream saida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            saida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.writeByte((int) valor);
+    }
+
+    private static long lerVarint(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = entrada.readUnsignedByte();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint inválido");
+    }
+}
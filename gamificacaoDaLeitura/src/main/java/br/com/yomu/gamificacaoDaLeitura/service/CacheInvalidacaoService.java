@@ -0,0 +1,262 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Barramento de invalidação dos caches locais entre instâncias, usando
+ * LISTEN/NOTIFY do Postgres.
+ *
+ * As chaves têm o formato {@code namespace:id}. Cada cache registra um
+ * namespace e recebe os ids a remover ({@link #TODOS} limpa o cache inteiro).
+ * Uma chave publicada invalida o cache local na hora (ou após o commit) e
+ * entra num lote que é enviado com um único pg_notify a cada poucos
+ * milissegundos para as outras instâncias.
+ *
+ * O LISTEN usa uma conexão própria, fora do Hikari: em produção ela precisa ir
+ * pelo pooler em modo sessão, já que o modo transação não entrega
+ * notificações. Enquanto essa conexão estiver caída os caches passam a
+ * expirar pelo TTL de fallback, e ao reconectar tudo é invalidado.
+ */
+@Service
+@Slf4j
+public class CacheInvalidacaoService {
+
+    public static final String CANAL = "yomu_cache";
+    public static final String TODOS = "*";
+
+    // O payload do NOTIFY tem limite de 8000 bytes
+    private static final int TAMANHO_MAXIMO_PAYLOAD = 7000;
+    private static final int ESPERA_NOTIFICACOES_MS = 10_000;
+    private static final long ESPERA_RECONEXAO_MS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final long ttlFallbackMs;
+
+    // Identifica as notificações desta instância, que já invalidou localmente
+    private final String origem = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, Consumer<String>> caches = new ConcurrentHashMap<>();
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean conectado;
+    private volatile boolean ativo = true;
+    private Thread ouvinte;
+
+    public CacheInvalidacaoService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${yomu.cache.invalidacao.url:${spring.datasource.url:}}") String url,
+            @Value("${yomu.cache.invalidacao.username:${spring.datasource.username:}}") String usuario,
+            @Value("${yomu.cache.invalidacao.password:${spring.datasource.password:}}") String senha,
+            @Value("${yomu.cache.invalidacao.ttl-fallback-ms:30000}") long ttlFallbackMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.ttlFallbackMs = ttlFallbackMs;
+    }
+
+    public void registrar(String namespace, Consumer<String> invalidar) {
+        caches.put(namespace, invalidar);
+    }
+
+    /**
+     * Publica a chave depois do commit da transação atual (ou na hora, fora de transação).
+     */
+    public void publicarAposCommit(String namespace, Object id) {
+        String chave = namespace + ":" + id;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(chave);
+                }
+            });
+        } else {
+            aplicar(chave);
+        }
+    }
+
+    /**
+     * Publica a chave imediatamente; para quem já roda depois do commit.
+     */
+    public void publicar(String namespace, Object id) {
+        aplicar(namespace + ":" + id);
+    }
+
+    /**
+     * Sem a conexão de LISTEN não há como saber de mudanças em outras
+     * instâncias: entradas mais velhas que o TTL de fallback são descartadas.
+     */
+    public boolean expirado(long criadoEmMs) {
+        return !conectado && System.currentTimeMillis() - criadoEmMs > ttlFallbackMs;
+    }
+
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    @Scheduled(fixedDelayString = "${yomu.cache.invalidacao.lote-ms:200}")
+    public void enviarPendentes() {
+        if (pendentes.isEmpty()) {
+            return;
+        }
+        List<String> lote = new ArrayList<>();
+        for (Iterator<String> it = pendentes.iterator(); it.hasNext(); ) {
+            lote.add(it.next());
+            it.remove();
+        }
+
+        List<String> payloads = montarPayloads(lote);
+        try {
+            for (String payload : payloads) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {}, CANAL, payload);
+            }
+            log.debug("📣 {} chaves de cache publicadas em {} notificações", lote.size(), payloads.size());
+        } catch (Exception e) {
+            // Volta para a fila; os outros nós seguem protegidos pelo TTL se a falha persistir
+            pendentes.addAll(lote);
+            log.warn("⚠️  Falha ao publicar invalidações de cache: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (url == null || url.isBlank()) {
+            log.warn("⚠️  Sem URL para o LISTEN de invalidação; caches locais usam só o TTL de {} ms", ttlFallbackMs);
+            return;
+        }
+        ouvinte = new Thread(this::ouvir, "cache-invalidacao-listen");
+        ouvinte.setDaemon(true);
+        ouvinte.start();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        if (ouvinte != null) {
+            ouvinte.interrupt();
+        }
+    }
+
+    private void ouvir() {
+        while (ativo) {
+            try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute("LISTEN " + CANAL);
+                }
+                PGConnection pgConexao = conexao.unwrap(PGConnection.class);
+                conectado = true;
+                // O que mudou enquanto estava desconectado não foi avisado
+                invalidarTudo();
+                log.info("👂 Ouvindo invalidações de cache no canal {}", CANAL);
+
+                while (ativo) {
+                    PGNotification[] notificacoes = pgConexao.getNotifications(ESPERA_NOTIFICACOES_MS);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            receber(notificacao.getParameter());
+                        }
+                    }
+                    if (!conexao.isValid(5)) {
+                        throw new SQLException("Conexão de LISTEN perdida");
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("⚠️  Conexão de invalidação de cache caiu, usando TTL de {} ms: {}", ttlFallbackMs, e.getMessage());
+            } finally {
+                conectado = false;
+            }
+            aguardarReconexao();
+        }
+    }
+
+    private void aguardarReconexao() {
+        try {
+            Thread.sleep(ESPERA_RECONEXAO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ativo = false;
+        }
+    }
+
+    private void aplicar(String chave) {
+        invalidarLocal(chave);
+        pendentes.add(chave);
+    }
+
+    // Payload: "origem|chave1\nchave2..."
+    private void receber(String payload) {
+        int separador = payload.indexOf('|');
+        if (separador < 0 || payload.substring(0, separador).equals(origem)) {
+            return;
+        }
+        for (String chave : payload.substring(separador + 1).split("\n")) {
+            invalidarLocal(chave);
+        }
+    }
+
+    private void invalidarLocal(String chave) {
+        int separador = chave.indexOf(':');
+        if (separador < 0) {
+            return;
+        }
+        Consumer<String> cache = caches.get(chave.substring(0, separador));
+        if (cache != null) {
+            cache.accept(chave.substring(separador + 1));
+        }
+    }
+
+    private void invalidarTudo() {
+        caches.values().forEach(cache -> cache.accept(TODOS));
+    }
+
+    private List<String> montarPayloads(List<String> chaves) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder atual = new StringBuilder(origem).append('|');
+        int inicio = atual.length();
+        int bytes = inicio;
+        for (String chave : chaves) {
+            int tamanhoChave = chave.getBytes(StandardCharsets.UTF_8).length;
+            if (atual.length() > inicio && bytes + tamanhoChave + 1 > TAMANHO_MAXIMO_PAYLOAD) {
+                payloads.add(atual.toString());
+                atual.setLength(inicio);
+                bytes = inicio;
+            }
+            if (atual.length() > inicio) {
+                atual.append('\n');
+                bytes++;
+            }
+            atual.append(chave);
+            bytes += tamanhoChave;
+        }
+        payloads.add(atual.toString());
+        return payloads;
+    }
+}
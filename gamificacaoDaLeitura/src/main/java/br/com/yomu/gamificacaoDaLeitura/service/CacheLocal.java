@@ -0,0 +1,73 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache local de uma instância, invalidado em todas as instâncias pelo
+ * {@link CacheInvalidacaoService}.
+ *
+ * Uma geração é incrementada a cada invalidação; um valor carregado enquanto
+ * alguma invalidação chegou não é guardado, para não voltar a servir o dado
+ * antigo lido antes do commit.
+ *
+ * Guarda no máximo {@code tamanhoMaximo} entradas, descartando a lida há mais
+ * tempo (LRU), como o cache de respostas do {@link IdempotenciaService}.
+ */
+public class CacheLocal<K, V> {
+
+    private record Entrada<V>(V valor, long criadoEm) {}
+
+    private final String namespace;
+    private final CacheInvalidacaoService barramento;
+    // Ordem de acesso; o carregamento roda fora do lock
+    private final Map<K, Entrada<V>> entradas;
+    private long geracao;
+
+    public CacheLocal(String namespace, Function<String, K> converterId, CacheInvalidacaoService barramento,
+                      int tamanhoMaximo) {
+        this.namespace = namespace;
+        this.barramento = barramento;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+                return size() > tamanhoMaximo;
+            }
+        };
+        barramento.registrar(namespace, id -> {
+            synchronized (entradas) {
+                geracao++;
+                if (CacheInvalidacaoService.TODOS.equals(id)) {
+                    entradas.clear();
+                } else {
+                    entradas.remove(converterId.apply(id));
+                }
+            }
+        });
+    }
+
+    public V obter(K chave, Function<K, V> carregar) {
+        long geracaoAntes;
+        synchronized (entradas) {
+            Entrada<V> atual = entradas.get(chave);
+            if (atual != null && !barramento.expirado(atual.criadoEm())) {
+                return atual.valor();
+            }
+            geracaoAntes = geracao;
+        }
+        long criadoEm = System.currentTimeMillis();
+        V valor = carregar.apply(chave);
+        synchronized (entradas) {
+            if (geracao == geracaoAntes) {
+                entradas.put(chave, new Entrada<>(valor, criadoEm));
+            }
+        }
+        return valor;
+    }
+
+    // Invalida aqui e nas outras instâncias depois do commit da transação atual
+    public void invalidar(K chave) {
+        barramento.publicarAposCommit(namespace, chave);
+    }
+}
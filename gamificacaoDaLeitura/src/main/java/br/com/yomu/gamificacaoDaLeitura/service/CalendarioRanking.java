@@ -0,0 +1,106 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Janelas dos rankings alinhadas ao calendário (semana ISO, mês e ano civis)
+ * no fuso configurado em {@code yomu.ranking.fuso}.
+ *
+ * Os limites de cada janela são calculados uma vez e reaproveitados até a
+ * próxima virada; entre duas viradas, o resultado de um período só muda
+ * quando alguém ganha XP. A chave da janela ({@link Janela#chave()}) identifica
+ * o balde em caches e placares.
+ */
+@Component
+public class CalendarioRanking {
+
+    /**
+     * Janela atual de um período. Para TOTAL, que não tem janela, os limites são nulos.
+     */
+    public record Janela(PeriodoRanking periodo, LocalDate inicio, LocalDate fim, Instant comecaEm, Instant terminaEm) {
+
+        public String chave() {
+            return inicio == null ? periodo.name() : periodo.name() + ":" + inicio;
+        }
+
+        public boolean contem(Instant instante) {
+            return comecaEm == null || (!instante.isBefore(comecaEm) && instante.isBefore(terminaEm));
+        }
+    }
+
+    private record Janelas(Map<PeriodoRanking, Janela> porPeriodo, Instant proximaVirada) {}
+
+    private final Clock relogio;
+    private volatile Janelas janelas;
+
+    @Autowired
+    public CalendarioRanking(@Value("${yomu.ranking.fuso:America/Sao_Paulo}") String fuso) {
+        this(Clock.system(ZoneId.of(fuso)));
+    }
+
+    CalendarioRanking(Clock relogio) {
+        this.relogio = relogio;
+        this.janelas = calcular(LocalDate.now(relogio));
+    }
+
+    public ZoneId getFuso() {
+        return relogio.getZone();
+    }
+
+    public LocalDate hoje() {
+        return LocalDate.now(relogio);
+    }
+
+    public Janela janela(PeriodoRanking periodo) {
+        Janelas atuais = janelas;
+        if (!relogio.instant().isBefore(atuais.proximaVirada())) {
+            atuais = calcular(hoje());
+            janelas = atuais;
+        }
+        return atuais.porPeriodo().get(periodo);
+    }
+
+    /**
+     * Dia, no fuso dos rankings, de um horário gravado no fuso da JVM
+     * (como os {@code createdAt} das entidades).
+     */
+    public LocalDate dia(LocalDateTime horarioLocal) {
+        return horarioLocal.atZone(ZoneId.systemDefault()).withZoneSameInstant(getFuso()).toLocalDate();
+    }
+
+    public Instant instante(LocalDateTime horarioLocal) {
+        return horarioLocal.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private Janelas calcular(LocalDate hoje) {
+        Map<PeriodoRanking, Janela> porPeriodo = new EnumMap<>(PeriodoRanking.class);
+        // A próxima virada é o fim da janela que termina primeiro (no máximo uma semana)
+        Instant proximaVirada = Instant.MAX;
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            if (!periodo.possuiJanela()) {
+                porPeriodo.put(periodo, new Janela(periodo, null, null, null, null));
+                continue;
+            }
+            LocalDate inicio = periodo.inicioEm(hoje);
+            LocalDate fim = periodo.fimEm(inicio);
+            Instant terminaEm = fim.plusDays(1).atStartOfDay(getFuso()).toInstant();
+            porPeriodo.put(periodo, new Janela(periodo, inicio, fim, inicio.atStartOfDay(getFuso()).toInstant(), terminaEm));
+            if (terminaEm.isBefore(proximaVirada)) {
+                proximaVirada = terminaEm;
+            }
+        }
+        return new Janelas(Collections.unmodifiableMap(porPeriodo), proximaVirada);
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Monta os placares de todos os períodos numa única passada pelos dados.
+ *
+ * Cada usuário recebe um índice denso ({@link IndiceUsuarios}); o XP fica num
+ * long[] por período. Uma linha da consolidação diária é somada, de uma vez, em todas
+ * as janelas que contêm o seu dia. Não é thread-safe.
+ */
+public class ConstrutorPlacares {
+
+    private static final PeriodoRanking[] PERIODOS = PeriodoRanking.values();
+
+    private final long[] inicioJanela = new long[PERIODOS.length];
+    private final IndiceUsuarios indice = new IndiceUsuarios(1024);
+    private long[][] xp = new long[PERIODOS.length][1024];
+
+    public ConstrutorPlacares(LocalDate hoje) {
+        for (PeriodoRanking periodo : PERIODOS) {
+            // Janela do calendário que contém hoje; TOTAL não tem janela e vem de Usuario.xpTotal
+            inicioJanela[periodo.ordinal()] = periodo.possuiJanela()
+                ? periodo.inicioEm(hoje).toEpochDay()
+                : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Primeiro dia que alguma janela precisa ler.
+     */
+    public static LocalDate primeiroDia(LocalDate hoje) {
+        // Normalmente 1º de janeiro, mas a semana ISO pode começar no ano anterior
+        LocalDate primeiro = hoje;
+        for (PeriodoRanking periodo : PERIODOS) {
+            if (periodo.possuiJanela() && periodo.inicioEm(hoje).isBefore(primeiro)) {
+                primeiro = periodo.inicioEm(hoje);
+            }
+        }
+        return primeiro;
+    }
+
+    public void adicionarUsuario(UUID usuarioId, long xpTotal) {
+        int i = indice.obterOuCriar(usuarioId);
+        if (i == xp[0].length) {
+            crescer();
+        }
+        xp[PeriodoRanking.TOTAL.ordinal()][i] = xpTotal;
+    }
+
+    /**
+     * Soma o XP de um dia em todas as janelas que contêm esse dia.
+     * Usuários não adicionados são ignorados.
+     */
+    public void acumular(UUID usuarioId, LocalDate dia, long xpDoDia) {
+        int i = indice.indiceDe(usuarioId);
+        if (i == IndiceUsuarios.AUSENTE) {
+            return;
+        }
+        long epochDay = dia.toEpochDay();
+        for (int p = 0; p < PERIODOS.length; p++) {
+            if (epochDay >= inicioJanela[p]) {
+                xp[p][i] += xpDoDia;
+            }
+        }
+    }
+
+    public int tamanho() {
+        return indice.tamanho();
+    }
+
+    /**
+     * Histogramas de XP de cada período, com os mesmos valores dos placares.
+     * Deve ser chamado antes de {@link #construir()}.
+     */
+    public Map<PeriodoRanking, HistogramaXp> histogramas() {
+        Map<PeriodoRanking, HistogramaXp> histogramas = new EnumMap<>(PeriodoRanking.class);
+        for (PeriodoRanking periodo : PERIODOS) {
+            HistogramaXp histograma = new HistogramaXp();
+            long[] xpDoPeriodo = xp[periodo.ordinal()];
+            for (int i = 0; i < indice.tamanho(); i++) {
+                histograma.adicionar(xpDoPeriodo[i]);
+            }
+            histogramas.put(periodo, histograma);
+        }
+        return histogramas;
+    }
+
+    /**
+     * Emite os placares, que passam a compartilhar o mesmo índice de usuários.
+     * O construtor não deve ser usado depois disso.
+     */
+    public Map<PeriodoRanking, PlacarRanking> construir() {
+        Map<PeriodoRanking, PlacarRanking> placares = new EnumMap<>(PeriodoRanking.class);
+        for (PeriodoRanking periodo : PERIODOS) {
+            placares.put(periodo, PlacarRanking.construir(indice, xp[periodo.ordinal()], indice.tamanho()));
+        }
+        return placares;
+    }
+
+    private void crescer() {
+        int novoTamanho = xp[0].length * 2;
+        for (int p = 0; p < PERIODOS.length; p++) {
+            xp[p] = Arrays.copyOf(xp[p], novoTamanho);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+/**
+ * Histograma de XP com baldes log-lineares: valores até 31 têm balde próprio
+ * e, acima disso, cada potência de 2 é dividida em 16 baldes. A largura de um
+ * balde nunca passa de 1/16 do valor, com um número fixo de baldes (960) para
+ * qualquer XP.
+ *
+ * Uma árvore de Fenwick sobre os baldes conta quantos usuários estão acima de
+ * um XP em O(log B), B constante, independente do número de usuários. A
+ * posição estimada fica sempre entre {@link Estimativa#posicaoMinima()} e
+ * {@link Estimativa#posicaoMaxima()}: o erro é limitado pela população do
+ * balde do usuário.
+ *
+ * Não é thread-safe: o acesso concorrente é controlado por {@link RankingMemoriaService}.
+ */
+public class HistogramaXp {
+
+    public record Estimativa(long posicao, long posicaoMinima, long posicaoMaxima, long total) {
+
+        // Fração (0-100] de usuários na posição estimada ou acima dela: "top X%"
+        public double percentil() {
+            return total == 0 ? 100.0 : 100.0 * posicao / total;
+        }
+    }
+
+    private static final int BITS_SUBBALDE = 4;
+    private static final int SUBBALDES = 1 << BITS_SUBBALDE;
+    // Valores abaixo disto têm balde exato
+    private static final int LIMITE_LINEAR = SUBBALDES << 1;
+    private static final int MENOR_EXPOENTE = BITS_SUBBALDE + 1;
+    static final int TOTAL_BALDES = LIMITE_LINEAR + (63 - MENOR_EXPOENTE) * SUBBALDES;
+
+    private final long[] contagem = new long[TOTAL_BALDES];
+    // Árvore de Fenwick (1-based) sobre contagem
+    private final long[] arvore = new long[TOTAL_BALDES + 1];
+    private long total;
+
+    public void adicionar(long xp) {
+        alterar(balde(xp), 1);
+    }
+
+    public void remover(long xp) {
+        int balde = balde(xp);
+        if (contagem[balde] > 0) {
+            alterar(balde, -1);
+        }
+    }
+
+    public void mover(long xpAnterior, long xpNovo) {
+        int anterior = balde(xpAnterior);
+        int novo = balde(xpNovo);
+        if (anterior != novo) {
+            alterar(anterior, -1);
+            alterar(novo, 1);
+        }
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Posição estimada de quem tem {@code xp}, supondo que ele está no histograma.
+     * Usa o meio do balde: quem está nele pode estar em qualquer ponto da faixa.
+     */
+    public Estimativa estimar(long xp) {
+        int balde = balde(xp);
+        long acima = total - prefixo(balde);
+        long noBalde = Math.max(1, contagem[balde]);
+        return new Estimativa(acima + (noBalde + 1) / 2, acima + 1, acima + noBalde, total);
+    }
+
+    static int balde(long xp) {
+        if (xp < LIMITE_LINEAR) {
+            return (int) Math.max(0, xp);
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(xp);
+        // Os 5 bits mais altos (16..31) escolhem o sub-balde dentro da potência de 2
+        int subbalde = (int) (xp >>> (expoente - BITS_SUBBALDE)) - SUBBALDES;
+        return LIMITE_LINEAR + (expoente - MENOR_EXPOENTE) * SUBBALDES + subbalde;
+    }
+
+    private void alterar(int balde, long delta) {
+        contagem[balde] += delta;
+        total += delta;
+        for (int i = balde + 1; i <= TOTAL_BALDES; i += i & -i) {
+            arvore[i] += delta;
+        }
+    }
+
+    // Quantidade de usuários nos baldes 0..balde
+    private long prefixo(int balde) {
+        long soma = 0;
+        for (int i = balde + 1; i > 0; i -= i & -i) {
+            soma += arvore[i];
+        }
+        return soma;
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.RespostaIdempotente;
+import br.com.yomu.gamificacaoDaLeitura.repository.RespostaIdempotenteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicação dos POST com cabeçalho Idempotency-Key (ver IdempotenciaFilter).
+ *
+ * A primeira requisição reserva a chave na tabela respostas_idempotentes (a
+ * chave primária garante que só uma instância executa) e, ao terminar com
+ * sucesso, grava a resposta. As repetições recebem a resposta gravada sem
+ * abrir transação de negócio. Respostas concluídas nunca mudam, então ficam
+ * também num cache local limitado (LRU com TTL) que evita a ida ao banco.
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    // Respostas maiores só ficam no banco
+    private static final int TAMANHO_MAXIMO_CACHE = 64 * 1024;
+
+    // Além do corpo, os cabeçalhos que o cliente usa da resposta original
+    public record RespostaGuardada(int status, String contentType, String location, byte[] corpo) {}
+
+    public enum Situacao { NOVA, REPETIDA, EM_ANDAMENTO, CHAVE_REUTILIZADA }
+
+    // resposta só vem preenchida em REPETIDA
+    public record Reserva(Situacao situacao, RespostaGuardada resposta) {}
+
+    private record Concluida(String hashRequisicao, RespostaGuardada resposta, long concluidaEm) {}
+
+    private final RespostaIdempotenteRepository respostaIdempotenteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMs;
+    private final long reservaExpiraMs;
+    private final Map<String, Concluida> concluidas;
+
+    public IdempotenciaService(
+            RespostaIdempotenteRepository respostaIdempotenteRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${yomu.idempotencia.ttl-ms:86400000}") long ttlMs,
+            @Value("${yomu.idempotencia.reserva-expira-ms:60000}") long reservaExpiraMs,
+            @Value("${yomu.idempotencia.cache.tamanho:10000}") int tamanhoCache) {
+        this.respostaIdempotenteRepository = respostaIdempotenteRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMs = ttlMs;
+        this.reservaExpiraMs = reservaExpiraMs;
+        this.concluidas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Concluida> maisAntiga) {
+                return size() > tamanhoCache;
+            }
+        };
+    }
+
+    public Reserva reservar(String chave, String hashRequisicao) {
+        Concluida local = buscarLocal(chave);
+        if (local != null) {
+            return repetida(local.hashRequisicao(), hashRequisicao, local.resposta());
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (respostaIdempotenteRepository.reservar(chave, hashRequisicao, reservaExpiraMs / 1000.0).isPresent()) {
+                return new Reserva(Situacao.NOVA, null);
+            }
+            RespostaIdempotente existente = respostaIdempotenteRepository.findById(chave).orElse(null);
+            if (existente == null) {
+                // Removida pela limpeza entre o INSERT e a leitura: o cliente tenta de novo
+                return new Reserva(Situacao.EM_ANDAMENTO, null);
+            }
+            if (existente.getStatus() == null) {
+                return existente.getHashRequisicao().equals(hashRequisicao)
+                        ? new Reserva(Situacao.EM_ANDAMENTO, null)
+                        : new Reserva(Situacao.CHAVE_REUTILIZADA, null);
+            }
+            RespostaGuardada resposta = new RespostaGuardada(existente.getStatus(), existente.getContentType(),
+                    existente.getLocation(), existente.getCorpo() != null ? existente.getCorpo() : new byte[0]);
+            guardarLocal(chave, existente.getHashRequisicao(), resposta);
+            return repetida(existente.getHashRequisicao(), hashRequisicao, resposta);
+        });
+    }
+
+    public void concluir(String chave, String hashRequisicao, RespostaGuardada resposta) {
+        transactionTemplate.executeWithoutResult(status -> respostaIdempotenteRepository.concluir(
+                chave, resposta.status(), resposta.contentType(), resposta.location(), resposta.corpo()));
+        guardarLocal(chave, hashRequisicao, resposta);
+    }
+
+    // A requisição falhou (nada foi gravado): a próxima tentativa com a mesma chave executa de novo
+    public void liberar(String chave) {
+        transactionTemplate.executeWithoutResult(status -> respostaIdempotenteRepository.liberar(chave));
+    }
+
+    @Scheduled(fixedDelayString = "${yomu.idempotencia.limpeza-ms:3600000}")
+    public void removerExpiradas() {
+        Integer removidas = transactionTemplate.execute(status -> respostaIdempotenteRepository.removerExpiradas(ttlMs / 1000.0));
+        if (removidas != null && removidas > 0) {
+            log.info("🧹 {} chaves de idempotência expiradas removidas", removidas);
+        }
+    }
+
+    private Reserva repetida(String hashGuardado, String hashRequisicao, RespostaGuardada resposta) {
+        return hashGuardado.equals(hashRequisicao)
+                ? new Reserva(Situacao.REPETIDA, resposta)
+                : new Reserva(Situacao.CHAVE_REUTILIZADA, null);
+    }
+
+    private Concluida buscarLocal(String chave) {
+        synchronized (concluidas) {
+            Concluida concluida = concluidas.get(chave);
+            if (concluida != null && System.currentTimeMillis() - concluida.concluidaEm() > ttlMs) {
+                concluidas.remove(chave);
+                return null;
+            }
+            return concluida;
+        }
+    }
+
+    private void guardarLocal(String chave, String hashRequisicao, RespostaGuardada resposta) {
+        if (resposta.corpo().length > TAMANHO_MAXIMO_CACHE) {
+            return;
+        }
+        synchronized (concluidas) {
+            concluidas.put(chave, new Concluida(hashRequisicao, resposta, System.currentTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Associa cada UUID de usuário a um índice inteiro denso (0, 1, 2...).
+ *
+ * Os UUIDs ficam em dois long[] e a busca usa endereçamento aberto sobre um
+ * int[], sem objetos por usuário. Índices nunca são reaproveitados; a
+ * reconstrução periódica dos placares cria um índice novo. Não é thread-safe.
+ */
+public class IndiceUsuarios {
+
+    public static final int AUSENTE = -1;
+
+    private long[] msb;
+    private long[] lsb;
+    private int tamanho;
+    // Posição -> índice denso (ou AUSENTE); capacidade sempre potência de 2
+    private int[] tabela;
+
+    public IndiceUsuarios() {
+        this(16);
+    }
+
+    public IndiceUsuarios(int capacidadeInicial) {
+        int capacidade = Math.max(16, capacidadeInicial);
+        msb = new long[capacidade];
+        lsb = new long[capacidade];
+        tabela = novaTabela(Integer.highestOneBit(capacidade - 1) << 2);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public int indiceDe(UUID usuarioId) {
+        long m = usuarioId.getMostSignificantBits();
+        long l = usuarioId.getLeastSignificantBits();
+        int mascara = tabela.length - 1;
+        for (int i = hash(m, l) & mascara; ; i = (i + 1) & mascara) {
+            int indice = tabela[i];
+            if (indice == AUSENTE) {
+                return AUSENTE;
+            }
+            if (msb[indice] == m && lsb[indice] == l) {
+                return indice;
+            }
+        }
+    }
+
+    public int obterOuCriar(UUID usuarioId) {
+        int existente = indiceDe(usuarioId);
+        if (existente != AUSENTE) {
+            return existente;
+        }
+        if (tamanho == msb.length) {
+            msb = Arrays.copyOf(msb, tamanho * 2);
+            lsb = Arrays.copyOf(lsb, tamanho * 2);
+        }
+        int indice = tamanho++;
+        msb[indice] = usuarioId.getMostSignificantBits();
+        lsb[indice] = usuarioId.getLeastSignificantBits();
+        // Carga máxima de 50%
+        if (tamanho * 2 > tabela.length) {
+            redimensionar();
+        } else {
+            posicionar(tabela, indice);
+        }
+        return indice;
+    }
+
+    public UUID usuario(int indice) {
+        return new UUID(msb[indice], lsb[indice]);
+    }
+
+    /**
+     * Mesma ordem de {@link UUID#compareTo}, sem criar objetos.
+     */
+    public int comparar(int a, int b) {
+        int cmp = Long.compare(msb[a], msb[b]);
+        return cmp != 0 ? cmp : Long.compare(lsb[a], lsb[b]);
+    }
+
+    private void redimensionar() {
+        int[] nova = novaTabela(tabela.length * 2);
+        for (int indice = 0; indice < tamanho; indice++) {
+            posicionar(nova, indice);
+        }
+        tabela = nova;
+    }
+
+    private void posicionar(int[] destino, int indice) {
+        int mascara = destino.length - 1;
+        int i = hash(msb[indice], lsb[indice]) & mascara;
+        while (destino[i] != AUSENTE) {
+            i = (i + 1) & mascara;
+        }
+        destino[i] = indice;
+    }
+
+    private static int[] novaTabela(int capacidade) {
+        int[] tabela = new int[capacidade];
+        Arrays.fill(tabela, AUSENTE);
+        return tabela;
+    }
+
+    private static int hash(long m, long l) {
+        long h = (m ^ l) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -8,7 +8,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -32,6 +35,22 @@ public class LivroService {
                 .orElseThrow(() -> new IllegalArgumentException("Livro não encontrado"));
     }
 
+    /**
+     * Busca vários livros numa única consulta; falha se algum não existir.
+     */
+    public Map<UUID, Livro> buscarPorIds(Collection<UUID> ids) {
+        Map<UUID, Livro> livros = new HashMap<>();
+        for (Livro livro : livroRepository.findAllById(ids)) {
+            livros.put(livro.getId(), livro);
+        }
+        for (UUID id : ids) {
+            if (!livros.containsKey(id)) {
+                throw new IllegalArgumentException("Livro não encontrado: " + id);
+            }
+        }
+        return livros;
+    }
+
     public List<Livro> listarPorUsuario(UUID usuarioId) {
         return livroRepository.findByUsuarioIdOrderByCreatedAtDesc(usuarioId);
     }
@@ -1,11 +1,11 @@
 package br.com.yomu.gamificacaoDaLeitura.service;
 
 import br.com.yomu.gamificacaoDaLeitura.model.Meta;
-import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
 import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.UnidadeMeta;
 import br.com.yomu.gamificacaoDaLeitura.repository.MetaRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -47,23 +47,25 @@ public class MetaService {
         return metaRepository.findByUsuarioIdAndConcluida(usuarioId, true);
     }
 
+    // Roda dentro da transação que registrou o progresso
+    @EventListener
     @Transactional
-    public void atualizarMetasComProgresso(UUID usuarioId, Progresso progresso) {
-        List<Meta> metasAtivas = listarMetasAtivas(usuarioId);
+    public void atualizarMetasComProgresso(ProgressoRegistradoEvent progresso) {
+        List<Meta> metasAtivas = listarMetasAtivas(progresso.getUsuarioId());
         
         for (Meta meta : metasAtivas) {
             boolean deveAtualizar = false;
             
             switch (meta.getUnidadeMeta()) {
                 case PAGINAS:
-                    if (progresso.getTipoProgresso().name().equals("PAGINA")) {
-                        meta.atualizarProgresso(progresso.getQuantidade());
+                    if (progresso.getPaginas() > 0) {
+                        meta.atualizarProgresso(progresso.getPaginas());
                         deveAtualizar = true;
                     }
                     break;
                 case CAPITULOS:
-                    if (progresso.getTipoProgresso().name().equals("CAPITULO")) {
-                        meta.atualizarProgresso(progresso.getQuantidade());
+                    if (progresso.getCapitulos() > 0) {
+                        meta.atualizarProgresso(progresso.getCapitulos());
                         deveAtualizar = true;
                     }
                     break;
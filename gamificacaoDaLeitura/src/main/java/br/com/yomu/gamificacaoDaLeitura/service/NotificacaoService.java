@@ -4,7 +4,7 @@ import br.com.yomu.gamificacaoDaLeitura.model.Notificacao;
 import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoNotificacao;
 import br.com.yomu.gamificacaoDaLeitura.repository.NotificacaoRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,11 +12,22 @@ import java.util.List;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class NotificacaoService {
 
     private final NotificacaoRepository notificacaoRepository;
     private final UsuarioService usuarioService;
+    // Contador de não lidas por usuário, consultado a cada carregamento de tela
+    private final CacheLocal<UUID, Long> naoLidas;
+
+    public NotificacaoService(NotificacaoRepository notificacaoRepository,
+                              UsuarioService usuarioService,
+                              CacheInvalidacaoService cacheInvalidacaoService,
+                              @Value("${yomu.notificacoes.cache:10000}") int tamanhoCache) {
+        this.notificacaoRepository = notificacaoRepository;
+        this.usuarioService = usuarioService;
+        this.naoLidas = new CacheLocal<>("notificacoes-nao-lidas", UUID::fromString, cacheInvalidacaoService,
+                                        tamanhoCache);
+    }
 
     @Transactional
     public Notificacao criar(UUID usuarioId, TipoNotificacao tipo, String titulo, String mensagem, String link) {
@@ -29,7 +40,20 @@ public class NotificacaoService {
         notificacao.setMensagem(mensagem);
         notificacao.setLink(link);
         
-        return notificacaoRepository.save(notificacao);
+        Notificacao notificacaoSalva = notificacaoRepository.save(notificacao);
+        naoLidas.invalidar(usuarioId);
+        return notificacaoSalva;
+    }
+
+    @Transactional
+    public Notificacao notificarNivel(UUID usuarioId, int nivel, long xpTotal) {
+        return criar(
+            usuarioId,
+            TipoNotificacao.NIVEL_ALCANCADO,
+            "Nível " + nivel + " alcançado!",
+            "Você chegou ao nível " + nivel + " com " + xpTotal + " XP. Continue lendo!",
+            "/perfil"
+        );
     }
 
     public List<Notificacao> listarPorUsuario(UUID usuarioId) {
@@ -41,7 +65,7 @@ public class NotificacaoService {
     }
 
     public long contarNaoLidas(UUID usuarioId) {
-        return notificacaoRepository.countByUsuarioIdAndLida(usuarioId, false);
+        return naoLidas.obter(usuarioId, id -> notificacaoRepository.countByUsuarioIdAndLida(id, false));
     }
 
     @Transactional
@@ -51,6 +75,7 @@ public class NotificacaoService {
         
         notificacao.setLida(true);
         notificacaoRepository.save(notificacao);
+        naoLidas.invalidar(notificacao.getUsuario().getId());
     }
 
     @Transactional
@@ -58,10 +83,13 @@ public class NotificacaoService {
         List<Notificacao> notificacoes = listarNaoLidas(usuarioId);
         notificacoes.forEach(n -> n.setLida(true));
         notificacaoRepository.saveAll(notificacoes);
+        naoLidas.invalidar(usuarioId);
     }
 
     @Transactional
     public void deletar(UUID notificacaoId) {
+        notificacaoRepository.findById(notificacaoId)
+            .ifPresent(notificacao -> naoLidas.invalidar(notificacao.getUsuario().getId()));
         notificacaoRepository.deleteById(notificacaoId);
     }
 }
\ No newline at end of file
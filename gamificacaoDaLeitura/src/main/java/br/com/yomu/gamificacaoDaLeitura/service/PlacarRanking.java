@@ -0,0 +1,332 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Placar ordenado por XP (maior primeiro) implementado como uma treap com
+ * tamanho de subárvore, permitindo inserir, remover e consultar a posição de
+ * um usuário em O(log N). Empates de XP são desempatados pelo ID do usuário.
+ *
+ * Os nós são os índices densos de um {@link IndiceUsuarios} (que pode ser
+ * compartilhado entre os placares de vários períodos) e os campos de cada nó
+ * ficam em arrays primitivos, sem um objeto por usuário. UUIDs e
+ * {@link Entrada} só são criados para a faixa devolvida.
+ *
+ * Não é thread-safe: o acesso concorrente é controlado por {@link RankingMemoriaService}.
+ */
+public class PlacarRanking {
+
+    public record Entrada(UUID usuarioId, long xp) {}
+
+    private static final int NIL = -1;
+
+    private final IndiceUsuarios indice;
+    private long[] xp;
+    private int[] prioridade;
+    private int[] esquerda;
+    private int[] direita;
+    // Tamanho da subárvore; 0 indica que o usuário não está neste placar
+    private int[] tamanhoSubarvore;
+    private int raiz = NIL;
+    private int presentes;
+
+    // Resultado de dividir(), para não alocar um par a cada chamada
+    private int divididoEsquerda;
+    private int divididoDireita;
+
+    public PlacarRanking() {
+        this(new IndiceUsuarios());
+    }
+
+    public PlacarRanking(IndiceUsuarios indice) {
+        this.indice = indice;
+        alocar(Math.max(16, indice.tamanho()));
+    }
+
+    /**
+     * Monta o placar de uma vez a partir do XP de cada índice denso
+     * (posições 0 a quantidade-1): ordena os índices e constrói a árvore em O(N).
+     * O array de XP passa a pertencer ao placar.
+     */
+    public static PlacarRanking construir(IndiceUsuarios indice, long[] xpPorIndice, int quantidade) {
+        PlacarRanking placar = new PlacarRanking(indice);
+        placar.xp = xpPorIndice.length >= placar.esquerda.length
+            ? xpPorIndice
+            : Arrays.copyOf(xpPorIndice, placar.esquerda.length);
+        placar.garantirCapacidade(placar.xp.length - 1);
+
+        int[] ordem = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            ordem[i] = i;
+        }
+        placar.ordenar(ordem);
+
+        // Árvore cartesiana: percorre em ordem, mantendo a borda direita numa pilha
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] pilha = new int[quantidade];
+        int topo = 0;
+        for (int no : ordem) {
+            placar.prioridade[no] = random.nextInt();
+            placar.direita[no] = NIL;
+            int ultimoRemovido = NIL;
+            while (topo > 0 && placar.prioridade[pilha[topo - 1]] < placar.prioridade[no]) {
+                ultimoRemovido = pilha[--topo];
+            }
+            placar.esquerda[no] = ultimoRemovido;
+            if (topo > 0) {
+                placar.direita[pilha[topo - 1]] = no;
+            }
+            pilha[topo++] = no;
+        }
+        placar.raiz = topo > 0 ? pilha[0] : NIL;
+        placar.presentes = quantidade;
+        placar.calcularTamanhos(placar.raiz);
+        return placar;
+    }
+
+    public int tamanho() {
+        return presentes;
+    }
+
+    public boolean contem(UUID usuarioId) {
+        return presente(indice.indiceDe(usuarioId));
+    }
+
+    public long xpDe(UUID usuarioId) {
+        int no = indice.indiceDe(usuarioId);
+        return presente(no) ? xp[no] : 0L;
+    }
+
+    public void atualizar(UUID usuarioId, long novoXp) {
+        int no = indice.obterOuCriar(usuarioId);
+        garantirCapacidade(no);
+        if (presente(no)) {
+            raiz = remover(raiz, no);
+        } else {
+            presentes++;
+        }
+        xp[no] = novoXp;
+        prioridade[no] = ThreadLocalRandom.current().nextInt();
+        esquerda[no] = NIL;
+        direita[no] = NIL;
+        tamanhoSubarvore[no] = 1;
+        raiz = inserir(raiz, no);
+    }
+
+    public void somar(UUID usuarioId, long delta) {
+        atualizar(usuarioId, xpDe(usuarioId) + delta);
+    }
+
+    public void remover(UUID usuarioId) {
+        int no = indice.indiceDe(usuarioId);
+        if (presente(no)) {
+            raiz = remover(raiz, no);
+            tamanhoSubarvore[no] = 0;
+            presentes--;
+        }
+    }
+
+    /**
+     * Posição (1-based) do usuário no placar, ou -1 se ele não estiver presente.
+     */
+    public int posicao(UUID usuarioId) {
+        int alvo = indice.indiceDe(usuarioId);
+        if (!presente(alvo)) {
+            return -1;
+        }
+        int anteriores = 0;
+        int atual = raiz;
+        while (atual != NIL) {
+            if (atual == alvo) {
+                return anteriores + tamanho(esquerda[atual]) + 1;
+            }
+            if (precede(alvo, atual)) {
+                atual = esquerda[atual];
+            } else {
+                anteriores += tamanho(esquerda[atual]) + 1;
+                atual = direita[atual];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retorna até {@code limite} entradas a partir da posição {@code offset} (0-based).
+     */
+    public List<Entrada> faixa(int offset, int limite) {
+        int inicio = Math.max(0, offset);
+        int fim = (int) Math.min((long) inicio + Math.max(0, limite), tamanho());
+        List<Entrada> resultado = new ArrayList<>(Math.max(0, fim - inicio));
+        if (inicio < fim) {
+            coletar(raiz, inicio, fim, resultado);
+        }
+        return resultado;
+    }
+
+    private void coletar(int no, int inicio, int fim, List<Entrada> destino) {
+        if (no == NIL) {
+            return;
+        }
+        int tamanhoEsquerda = tamanho(esquerda[no]);
+        if (inicio < tamanhoEsquerda) {
+            coletar(esquerda[no], inicio, fim, destino);
+        }
+        if (inicio <= tamanhoEsquerda && tamanhoEsquerda < fim) {
+            destino.add(new Entrada(indice.usuario(no), xp[no]));
+        }
+        if (fim > tamanhoEsquerda + 1) {
+            coletar(direita[no], inicio - tamanhoEsquerda - 1, fim - tamanhoEsquerda - 1, destino);
+        }
+    }
+
+    // Ordem do placar: XP decrescente, depois ID do usuário
+    private boolean precede(int a, int b) {
+        if (xp[a] != xp[b]) {
+            return xp[a] > xp[b];
+        }
+        return indice.comparar(a, b) < 0;
+    }
+
+    private int inserir(int no, int novo) {
+        if (no == NIL) {
+            return novo;
+        }
+        if (prioridade[novo] > prioridade[no]) {
+            dividir(no, novo);
+            esquerda[novo] = divididoEsquerda;
+            direita[novo] = divididoDireita;
+            recalcular(novo);
+            return novo;
+        }
+        if (precede(novo, no)) {
+            esquerda[no] = inserir(esquerda[no], novo);
+        } else {
+            direita[no] = inserir(direita[no], novo);
+        }
+        recalcular(no);
+        return no;
+    }
+
+    private int remover(int no, int alvo) {
+        if (no == NIL) {
+            return NIL;
+        }
+        if (no == alvo) {
+            return juntar(esquerda[no], direita[no]);
+        }
+        if (precede(alvo, no)) {
+            esquerda[no] = remover(esquerda[no], alvo);
+        } else {
+            direita[no] = remover(direita[no], alvo);
+        }
+        recalcular(no);
+        return no;
+    }
+
+    // Divide a árvore em [antes da chave, depois da chave]
+    private void dividir(int no, int chave) {
+        if (no == NIL) {
+            divididoEsquerda = NIL;
+            divididoDireita = NIL;
+            return;
+        }
+        if (precede(chave, no)) {
+            dividir(esquerda[no], chave);
+            esquerda[no] = divididoDireita;
+            recalcular(no);
+            divididoDireita = no;
+        } else {
+            dividir(direita[no], chave);
+            direita[no] = divididoEsquerda;
+            recalcular(no);
+            divididoEsquerda = no;
+        }
+    }
+
+    private int juntar(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (prioridade[a] > prioridade[b]) {
+            direita[a] = juntar(direita[a], b);
+            recalcular(a);
+            return a;
+        }
+        esquerda[b] = juntar(a, esquerda[b]);
+        recalcular(b);
+        return b;
+    }
+
+    private int calcularTamanhos(int no) {
+        if (no == NIL) {
+            return 0;
+        }
+        tamanhoSubarvore[no] = 1 + calcularTamanhos(esquerda[no]) + calcularTamanhos(direita[no]);
+        return tamanhoSubarvore[no];
+    }
+
+    // Ordenação por intercalação sobre os índices, comparando direto nos arrays
+    private void ordenar(int[] ordem) {
+        int[] auxiliar = new int[ordem.length];
+        for (int largura = 1; largura < ordem.length; largura *= 2) {
+            for (int inicio = 0; inicio < ordem.length - largura; inicio += 2 * largura) {
+                int meio = inicio + largura;
+                int fim = Math.min(inicio + 2 * largura, ordem.length);
+                int i = inicio;
+                int j = meio;
+                int k = inicio;
+                while (i < meio && j < fim) {
+                    auxiliar[k++] = precede(ordem[j], ordem[i]) ? ordem[j++] : ordem[i++];
+                }
+                while (i < meio) {
+                    auxiliar[k++] = ordem[i++];
+                }
+                while (j < fim) {
+                    auxiliar[k++] = ordem[j++];
+                }
+                System.arraycopy(auxiliar, inicio, ordem, inicio, fim - inicio);
+            }
+        }
+    }
+
+    private boolean presente(int no) {
+        return no != IndiceUsuarios.AUSENTE && no < tamanhoSubarvore.length && tamanhoSubarvore[no] > 0;
+    }
+
+    private int tamanho(int no) {
+        return no == NIL ? 0 : tamanhoSubarvore[no];
+    }
+
+    private void recalcular(int no) {
+        tamanhoSubarvore[no] = 1 + tamanho(esquerda[no]) + tamanho(direita[no]);
+    }
+
+    private void alocar(int capacidade) {
+        xp = new long[capacidade];
+        prioridade = new int[capacidade];
+        esquerda = new int[capacidade];
+        direita = new int[capacidade];
+        tamanhoSubarvore = new int[capacidade];
+    }
+
+    private void garantirCapacidade(int no) {
+        if (no < esquerda.length) {
+            return;
+        }
+        int capacidade = Math.max(no + 1, esquerda.length * 2);
+        if (xp.length < capacidade) {
+            xp = Arrays.copyOf(xp, capacidade);
+        }
+        prioridade = Arrays.copyOf(prioridade, capacidade);
+        esquerda = Arrays.copyOf(esquerda, capacidade);
+        direita = Arrays.copyOf(direita, capacidade);
+        tamanhoSubarvore = Arrays.copyOf(tamanhoSubarvore, capacidade);
+    }
+}
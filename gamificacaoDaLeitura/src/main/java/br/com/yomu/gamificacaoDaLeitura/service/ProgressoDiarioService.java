@@ -0,0 +1,89 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoDiarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressoDiarioService {
+
+    private static final UUID MENOR_UUID = new UUID(0L, 0L);
+
+    private final ProgressoDiarioRepository progressoDiarioRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CalendarioRanking calendarioRanking;
+
+    @Value("${yomu.rollup.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${yomu.rollup.backfill-na-inicializacao:false}")
+    private boolean backfillNaInicializacao;
+
+    // Roda dentro da transação que registrou o progresso. O dia é o do fuso dos rankings,
+    // o mesmo usado nas janelas do CalendarioRanking
+    @EventListener
+    @Transactional
+    public void acumular(ProgressoRegistradoEvent progresso) {
+        progressoDiarioRepository.acumular(
+            progresso.getUsuarioId(),
+            calendarioRanking.dia(progresso.getRegistradoEm()),
+            progresso.getXpGerado(),
+            progresso.getPaginas(),
+            progresso.getCapitulos()
+        );
+    }
+
+    // Roda antes da reconstrução dos placares em memória, que lê a consolidação
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void backfillNaInicializacao() {
+        if (backfillNaInicializacao) {
+            backfill();
+        }
+    }
+
+    /**
+     * Reconstrói a consolidação diária a partir dos progressos existentes,
+     * em lotes de usuários, cada lote na sua própria transação.
+     * Pode ser executado mais de uma vez e com a aplicação no ar: um dia só é
+     * sobrescrito quando a soma recalculada é maior que a consolidada.
+     */
+    public int backfill() {
+        log.info("🧮 Iniciando backfill da consolidação diária (lotes de {} usuários)", tamanhoLote);
+        long inicio = System.currentTimeMillis();
+        int usuariosProcessados = 0;
+        UUID ultimoId = MENOR_UUID;
+
+        while (true) {
+            List<UUID> lote = usuarioRepository.findIdsApos(ultimoId, PageRequest.of(0, tamanhoLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+            Integer linhas = transactionTemplate.execute(status -> progressoDiarioRepository.consolidarUsuarios(
+                lote, ZoneId.systemDefault().getId(), calendarioRanking.getFuso().getId()));
+            usuariosProcessados += lote.size();
+            ultimoId = lote.get(lote.size() - 1);
+            log.debug("Lote consolidado: {} usuários, {} dias", lote.size(), linhas);
+        }
+
+        log.info("✅ Backfill concluído: {} usuários em {} ms", usuariosProcessados, System.currentTimeMillis() - inicio);
+        return usuariosProcessados;
+    }
+}
@@ -1,14 +1,57 @@
 package br.com.yomu.gamificacaoDaLeitura.service;
 
+import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoProgresso;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Progresso registrado, com tudo que os consumidores (metas, consolidação diária,
+ * rankings) precisam para aplicar o delta sem reler o histórico.
+ *
+ * Um lote de progressos do mesmo usuário gera um único evento com as somas.
+ */
 @Getter
+@AllArgsConstructor
 public class ProgressoRegistradoEvent {
     private final UUID usuarioId;
-    
-    public ProgressoRegistradoEvent(UUID usuarioId) {
-        this.usuarioId = usuarioId;
+    private final Long xpGerado;
+    private final Integer paginas;
+    private final Integer capitulos;
+    private final Integer registros;
+    private final LocalDateTime registradoEm;
+
+    public static ProgressoRegistradoEvent de(Progresso progresso) {
+        return deLote(List.of(progresso));
+    }
+
+    public static ProgressoRegistradoEvent deLote(List<Progresso> progressos) {
+        long xp = 0;
+        int paginas = 0;
+        int capitulos = 0;
+        LocalDateTime registradoEm = null;
+        for (Progresso progresso : progressos) {
+            xp += progresso.getXpGerado();
+            if (progresso.getTipoProgresso() == TipoProgresso.PAGINA) {
+                paginas += progresso.getQuantidade();
+            } else if (progresso.getTipoProgresso() == TipoProgresso.CAPITULO) {
+                capitulos += progresso.getQuantidade();
+            }
+            if (registradoEm == null || (progresso.getCreatedAt() != null && progresso.getCreatedAt().isAfter(registradoEm))) {
+                registradoEm = progresso.getCreatedAt();
+            }
+        }
+        return new ProgressoRegistradoEvent(
+            progressos.get(0).getUsuario().getId(),
+            xp,
+            paginas,
+            capitulos,
+            progressos.size(),
+            registradoEm != null ? registradoEm : LocalDateTime.now()
+        );
     }
-}
\ No newline at end of file
+}
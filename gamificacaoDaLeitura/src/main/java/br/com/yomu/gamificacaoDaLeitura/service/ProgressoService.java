@@ -1,6 +1,8 @@
 package br.com.yomu.gamificacaoDaLeitura.service;
 
 import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoCreateDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoLoteDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoLoteItemDTO;
 import br.com.yomu.gamificacaoDaLeitura.model.Livro;
 import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
 import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
@@ -13,7 +15,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -24,8 +30,9 @@ public class ProgressoService {
     private final ProgressoRepository progressoRepository;
     private final UsuarioService usuarioService;
     private final LivroService livroService;
-    private final MetaService metaService;
     private final RankingAsyncService rankingAsyncService;
+    private final NotificacaoService notificacaoService;
+    private final AcumuladorXpService acumuladorXpService;
     private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
@@ -41,19 +48,75 @@ public class ProgressoService {
         progresso.setLivro(livro);
         progresso.setQuantidade(dto.getQuantidade());
         progresso.setTipoProgresso(dto.getTipoProgresso());
+        progresso.setXpAplicado(!acumuladorXpService.isHabilitado());
     
         // XP será calculado automaticamente pelo @PrePersist
         Progresso progressoSalvo = progressoRepository.save(progresso);
         log.info("✅ Progresso registrado: {} XP gerado", progressoSalvo.getXpGerado());
     
-        usuarioService.adicionarXp(usuarioId, progressoSalvo.getXpGerado());
-        metaService.atualizarMetasComProgresso(usuarioId, progressoSalvo);
+        aplicarXp(usuario, progressoSalvo.getXpGerado());
 
-        eventPublisher.publishEvent(new ProgressoRegistradoEvent(usuarioId));
+        // Metas e consolidação diária consomem o evento nesta transação; rankings, após o commit
+        eventPublisher.publishEvent(ProgressoRegistradoEvent.de(progressoSalvo));
     
         return progressoSalvo;
     }
 
+    /**
+     * Registra de uma vez as sessões que o app acumulou offline. O lote é
+     * validado inteiro antes de gravar (todos os livros numa consulta), os
+     * inserts saem em batch JDBC e o XP, as metas e a consolidação diária
+     * recebem uma única atualização com as somas, via um só evento.
+     */
+    @Transactional
+    public List<Progresso> registrarLote(UUID usuarioId, ProgressoLoteDTO dto) {
+        log.info("📚 Registrando lote de {} progressos para usuário {}", dto.getProgressos().size(), usuarioId);
+
+        Usuario usuario = usuarioService.buscarPorId(usuarioId);
+        Set<UUID> livroIds = new HashSet<>();
+        for (ProgressoLoteItemDTO item : dto.getProgressos()) {
+            livroIds.add(item.getLivroId());
+        }
+        Map<UUID, Livro> livros = livroService.buscarPorIds(livroIds);
+
+        List<Progresso> progressos = new ArrayList<>(dto.getProgressos().size());
+        for (ProgressoLoteItemDTO item : dto.getProgressos()) {
+            Progresso progresso = new Progresso();
+            progresso.setUsuario(usuario);
+            progresso.setLivro(livros.get(item.getLivroId()));
+            progresso.setQuantidade(item.getQuantidade());
+            progresso.setTipoProgresso(item.getTipoProgresso());
+            progresso.setXpAplicado(!acumuladorXpService.isHabilitado());
+            progressos.add(progresso);
+        }
+
+        // IDs gerados na aplicação: o Hibernate agrupa os inserts (hibernate.jdbc.batch_size)
+        List<Progresso> salvos = progressoRepository.saveAll(progressos);
+        ProgressoRegistradoEvent evento = ProgressoRegistradoEvent.deLote(salvos);
+        log.info("✅ Lote registrado: {} progressos, {} XP gerado", salvos.size(), evento.getXpGerado());
+
+        aplicarXp(usuario, evento.getXpGerado());
+        eventPublisher.publishEvent(evento);
+
+        return salvos;
+    }
+
+    // Com write-behind o XP vai para o acumulador e o nível é verificado no descarregamento
+    private void aplicarXp(Usuario usuario, long xp) {
+        UUID usuarioId = usuario.getId();
+        if (acumuladorXpService.isHabilitado()) {
+            acumuladorXpService.acumular(usuarioId, xp);
+            return;
+        }
+        // O nível vem do próprio UPDATE atômico, então duas requisições simultâneas não notificam o mesmo nível
+        // O usuário foi lido antes do UPDATE; ele volta relido, então o progresso devolvido leva os valores já gravados
+        UsuarioService.XpAdicionado adicionado = usuarioService.adicionarXp(usuario, xp);
+        if (adicionado.subiuDeNivel()) {
+            log.info("⭐ Usuário {} alcançou o nível {}", usuarioId, adicionado.nivelAtual());
+            notificacaoService.notificarNivel(usuarioId, adicionado.nivelAtual(), adicionado.xpTotal());
+        }
+    }
+
     public List<Progresso> listarPorUsuario(UUID usuarioId) {
         return progressoRepository.findByUsuarioIdOrderByCreatedAtDesc(usuarioId);
     }
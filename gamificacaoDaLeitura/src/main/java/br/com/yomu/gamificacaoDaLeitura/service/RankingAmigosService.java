@@ -0,0 +1,215 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Amizade;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.StatusAmizade;
+import br.com.yomu.gamificacaoDaLeitura.repository.AmizadeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rankings de amigos materializados por usuário e período.
+ *
+ * Cada placar é montado a partir do grafo de amizades e do XP por período já
+ * mantido pelo {@link RankingMemoriaService}. Quando um usuário ganha XP, só os
+ * placares em que ele aparece são atualizados.
+ *
+ * Quando o grafo de amizades muda o placar não é descartado: ele é marcado
+ * como desatualizado e continua sendo servido até o recálculo em segundo
+ * plano trocá-lo pelo novo. Já um placar montado para uma janela do
+ * calendário que virou é refeito na leitura: o XP dele não vale mais.
+ *
+ * Só os placares lidos mais recentemente ficam materializados (LRU limitado
+ * por yomu.ranking.amigos.cache); os demais são montados de novo no próximo acesso.
+ */
+@Service
+@Slf4j
+public class RankingAmigosService {
+
+    private record Chave(UUID usuarioId, PeriodoRanking periodo) {}
+
+    // construidoEm em System.currentTimeMillis()
+    public record Leitura(List<RankingItemDTO> itens, long construidoEm, boolean desatualizado) {}
+
+    private final AmizadeRepository amizadeRepository;
+    private final RankingMemoriaService rankingMemoriaService;
+    private final int tamanhoMaximo;
+
+    // Em ordem de acesso: o primeiro é o placar lido há mais tempo
+    private final Map<Chave, PlacarRanking> placares = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Chave, Long> construidoEm = new HashMap<>();
+    private final Map<Chave, CalendarioRanking.Janela> janelas = new HashMap<>();
+    private final Set<Chave> desatualizados = new HashSet<>();
+    // Índice reverso: usuário -> placares de amigos em que ele aparece
+    private final Map<UUID, Set<Chave>> placaresPorMembro = new HashMap<>();
+
+    public RankingAmigosService(
+            AmizadeRepository amizadeRepository,
+            RankingMemoriaService rankingMemoriaService,
+            @Value("${yomu.ranking.amigos.cache:10000}") int tamanhoMaximo) {
+        this.amizadeRepository = amizadeRepository;
+        this.rankingMemoriaService = rankingMemoriaService;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    /**
+     * Devolve o placar materializado, mesmo se desatualizado. Só o primeiro
+     * acesso de cada usuário e período monta o placar na hora, já que ainda
+     * não há o que servir.
+     */
+    @Transactional(readOnly = true)
+    public Leitura obter(UUID usuarioId, PeriodoRanking periodo) {
+        Chave chave = new Chave(usuarioId, periodo);
+        synchronized (this) {
+            PlacarRanking placar = placares.get(chave);
+            if (placar != null && Objects.equals(janelas.get(chave), rankingMemoriaService.janela(periodo))) {
+                return ler(chave, placar);
+            }
+        }
+        return construir(chave);
+    }
+
+    @Transactional(readOnly = true)
+    public Leitura recalcular(UUID usuarioId, PeriodoRanking periodo) {
+        return construir(new Chave(usuarioId, periodo));
+    }
+
+    /**
+     * Reflete o XP atual do usuário em todos os placares de amigos onde ele aparece.
+     */
+    public synchronized void registrarXp(UUID usuarioId) {
+        Set<Chave> chaves = placaresPorMembro.get(usuarioId);
+        if (chaves == null) {
+            return;
+        }
+        for (Chave chave : chaves) {
+            PlacarRanking placar = placares.get(chave);
+            if (placar != null) {
+                placar.atualizar(usuarioId, rankingMemoriaService.xp(chave.periodo(), usuarioId));
+            }
+        }
+    }
+
+    /**
+     * Marca os placares do usuário como desatualizados; chamado quando o grafo
+     * de amizades dele muda. Eles seguem servidos até o próximo recálculo.
+     *
+     * Dentro de uma transação a marcação fica para depois do commit: antes
+     * dele, um recálculo concorrente ainda leria o grafo antigo e o placar
+     * montado com ele seria tomado como atualizado.
+     */
+    public void invalidar(UUID usuarioId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    marcarDesatualizados(usuarioId);
+                }
+            });
+        } else {
+            marcarDesatualizados(usuarioId);
+        }
+    }
+
+    /**
+     * Descarta os placares do usuário excluído e o tira dos placares dos amigos.
+     */
+    public synchronized void remover(UUID usuarioId) {
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            descartar(new Chave(usuarioId, periodo));
+        }
+        Set<Chave> chaves = placaresPorMembro.remove(usuarioId);
+        if (chaves == null) {
+            return;
+        }
+        for (Chave chave : chaves) {
+            PlacarRanking placar = placares.get(chave);
+            if (placar != null) {
+                placar.remover(usuarioId);
+            }
+        }
+    }
+
+    private synchronized void marcarDesatualizados(UUID usuarioId) {
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            Chave chave = new Chave(usuarioId, periodo);
+            if (placares.containsKey(chave)) {
+                desatualizados.add(chave);
+            }
+        }
+    }
+
+    // Lê o grafo fora do lock e troca o placar antigo pelo novo de uma vez
+    private Leitura construir(Chave chave) {
+        Set<UUID> membros = buscarAmigos(chave.usuarioId());
+        membros.add(chave.usuarioId());
+
+        synchronized (this) {
+            descartar(chave);
+            PlacarRanking placar = new PlacarRanking();
+            for (UUID membro : membros) {
+                placar.atualizar(membro, rankingMemoriaService.xp(chave.periodo(), membro));
+            }
+            placares.put(chave, placar);
+            construidoEm.put(chave, System.currentTimeMillis());
+            janelas.put(chave, rankingMemoriaService.janela(chave.periodo()));
+            for (UUID membro : membros) {
+                placaresPorMembro.computeIfAbsent(membro, id -> new HashSet<>()).add(chave);
+            }
+            while (placares.size() > tamanhoMaximo) {
+                descartar(placares.keySet().iterator().next());
+            }
+            return ler(chave, placar);
+        }
+    }
+
+    private Leitura ler(Chave chave, PlacarRanking placar) {
+        return new Leitura(
+            rankingMemoriaService.itens(placar.faixa(0, placar.tamanho()), 1),
+            construidoEm.get(chave),
+            desatualizados.contains(chave)
+        );
+    }
+
+    private synchronized void descartar(Chave chave) {
+        PlacarRanking placar = placares.remove(chave);
+        construidoEm.remove(chave);
+        janelas.remove(chave);
+        desatualizados.remove(chave);
+        if (placar == null) {
+            return;
+        }
+        for (PlacarRanking.Entrada entrada : placar.faixa(0, placar.tamanho())) {
+            Set<Chave> chaves = placaresPorMembro.get(entrada.usuarioId());
+            if (chaves != null) {
+                chaves.remove(chave);
+                if (chaves.isEmpty()) {
+                    placaresPorMembro.remove(entrada.usuarioId());
+                }
+            }
+        }
+    }
+
+    private Set<UUID> buscarAmigos(UUID usuarioId) {
+        Set<UUID> amigos = new HashSet<>();
+        for (Amizade amizade : amizadeRepository.findAmizadesByUsuarioAndStatus(usuarioId, StatusAmizade.ACEITA)) {
+            UUID id1 = amizade.getUsuarioId1().getId();
+            amigos.add(id1.equals(usuarioId) ? amizade.getUsuarioId2().getId() : id1);
+        }
+        return amigos;
+    }
+}
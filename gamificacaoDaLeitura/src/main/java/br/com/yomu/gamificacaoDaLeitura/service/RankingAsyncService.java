@@ -1,83 +1,73 @@
 package br.com.yomu.gamificacaoDaLeitura.service;
 
-import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
-import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
-import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RankingAsyncService {
-    
-    private final RankingService rankingService;
-    private final RankingRepository rankingRepository;
-    
+
+    // Namespace do XP ganho no barramento: cada instância relê o usuário do banco nos próprios placares.
+    // A notificação leva só o id: perdida ou repetida, a próxima releitura chega ao mesmo valor
+    public static final String NAMESPACE_XP = "ranking-xp";
+
+    private final RankingMemoriaService rankingMemoriaService;
+    private final RankingAmigosService rankingAmigosService;
+    private final RankingAtualizacaoService rankingAtualizacaoService;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final CacheInvalidacaoService cacheInvalidacaoService;
+
+    @PostConstruct
+    public void registrar() {
+        cacheInvalidacaoService.registrar(NAMESPACE_XP, this::aplicar);
+    }
+
     /**
-     * Escuta o evento APÓS o commit da transação de progresso.
-     * Roda em nova transação separada.
+     * Escuta o evento APÓS o commit da transação de progresso, ainda na thread
+     * da requisição, e publica o usuário que ganhou XP no barramento. Ele é relido
+     * aqui na hora e nas outras instâncias ao chegar a notificação, então todas
+     * servem o mesmo ranking em memória, não só a que recebeu o POST.
      */
-    
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
-    @Async("rankingTaskExecutor")
-    @Transactional(propagation = Propagation.REQUIRES_NEW) // ✅ Nova transação
     public void onProgressoRegistrado(ProgressoRegistradoEvent event) {
         log.info("🚀 Evento recebido! Iniciando atualização de rankings para usuário: {}", event.getUsuarioId());
-        
+
         try {
-            // Atualizar rankings gerais (com validação de tempo)
-            atualizarRankingSeNecessario(TipoRanking.GERAL, PeriodoRanking.SEMANAL);
-            atualizarRankingSeNecessario(TipoRanking.GERAL, PeriodoRanking.MENSAL);
-            atualizarRankingSeNecessario(TipoRanking.GERAL, PeriodoRanking.ANUAL);
-            atualizarRankingSeNecessario(TipoRanking.GERAL, PeriodoRanking.TOTAL);
-            
-            // Atualizar ranking de amigos
-            log.info("📊 Atualizando rankings de amigos...");
-            rankingService.calcularERankingAmigos(event.getUsuarioId(), PeriodoRanking.SEMANAL);
-            rankingService.calcularERankingAmigos(event.getUsuarioId(), PeriodoRanking.MENSAL);
-            
-            log.info("✅ Rankings atualizados com sucesso!");
-            
+            // Já roda depois do commit: publica direto
+            cacheInvalidacaoService.publicar(NAMESPACE_XP, event.getUsuarioId());
         } catch (Exception e) {
             log.error("❌ Erro ao atualizar rankings: {}", e.getMessage(), e);
         }
     }
-    
-    private void atualizarRankingSeNecessario(TipoRanking tipo, PeriodoRanking periodo) {
-        if (deveAtualizarRanking(tipo, periodo)) {
-            log.info("📊 Atualizando ranking {} - {}", tipo, periodo);
-            rankingService.calcularERankingGeral(periodo);
+
+    // id: usuarioId, ou TODOS quando o LISTEN (re)conecta: o XP publicado
+    // enquanto ele estava fora, inclusive antes da primeira conexão, só chega relendo o banco
+    private void aplicar(String id) {
+        if (CacheInvalidacaoService.TODOS.equals(id)) {
+            rankingMemoriaService.reconstruir();
         } else {
-            log.debug("⏭️  Pulando atualização de ranking {} - {} (atualizado recentemente)", tipo, periodo);
+            UUID usuarioId = UUID.fromString(id);
+
+            // Placar em memória: duas consultas pelo id e O(log N) por período
+            rankingMemoriaService.recarregarUsuario(usuarioId);
+
+            // Atualizar placares de amigos onde o usuário aparece
+            rankingAmigosService.registrarXp(usuarioId);
         }
-    }
-    
-    private boolean deveAtualizarRanking(TipoRanking tipo, PeriodoRanking periodo) {
-        try {
-            Ranking ranking = rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo)
-                    .orElse(null);
-            
-            if (ranking == null) {
-                return true;
+
+        // Snapshots persistidos: pedidos repetidos são agrupados pelo agendador
+        if (rankingLiderancaService.souLider()) {
+            for (PeriodoRanking periodo : PeriodoRanking.values()) {
+                rankingAtualizacaoService.solicitarGeral(periodo);
             }
-            
-            LocalDateTime limiteAtualizacao = LocalDateTime.now().minusMinutes(5);
-            return ranking.getUpdatedAt().isBefore(limiteAtualizacao);
-            
-        } catch (Exception e) {
-            log.warn("⚠️  Erro ao verificar atualização de ranking: {}", e.getMessage());
-            return true;
         }
     }
-}
\ No newline at end of file
+}
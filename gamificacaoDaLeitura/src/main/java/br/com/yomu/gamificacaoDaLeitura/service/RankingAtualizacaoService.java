@@ -0,0 +1,258 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agenda recálculos de ranking agrupando pedidos repetidos.
+ *
+ * Para cada chave (tipo, período, usuário) existe no máximo uma execução
+ * pendente e uma em andamento; pedidos que chegam enquanto há uma pendente são
+ * absorvidos por ela, e pedidos durante a execução geram uma única nova rodada.
+ * Duas execuções da mesma chave respeitam um intervalo mínimo configurável.
+ *
+ * O recálculo roda no {@code rankingTaskExecutor}, de fila limitada. Se a fila
+ * estiver cheia a tentativa é descartada, mas a chave continua pendente e é
+ * reenviada mais tarde, ainda como uma única execução.
+ *
+ * O estado de uma chave é descartado quando ela fica ociosa por um intervalo
+ * mínimo inteiro, então o mapa só guarda as chaves pedidas recentemente.
+ */
+@Service
+@Slf4j
+public class RankingAtualizacaoService {
+
+    private static final long ATRASO_MINIMO_APOS_DESCARTE_MS = 1000;
+
+    public record Chave(TipoRanking tipo, PeriodoRanking periodo, UUID usuarioId) {}
+
+    private static final class Estado {
+        private boolean agendado;
+        // Já entregue ao executor, esperando na fila dele
+        private boolean enviado;
+        private boolean executando;
+        private boolean pendenteAposExecucao;
+        private long ultimaExecucao = Long.MIN_VALUE / 2;
+    }
+
+    private final RankingService rankingService;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final TaskExecutor executor;
+    private final long intervaloMinimoMs;
+    // Só conta o tempo até a chave poder rodar; o trabalho vai para o executor
+    private final ScheduledExecutorService temporizador;
+    private final Map<Chave, Estado> estados = new HashMap<>();
+
+    private final Timer tempoNaFila;
+    private final Timer duracao;
+    private final Counter descartes;
+
+    public RankingAtualizacaoService(
+            RankingService rankingService,
+            RankingLiderancaService rankingLiderancaService,
+            @Qualifier("rankingTaskExecutor") TaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${yomu.ranking.atualizacao.intervalo-minimo-ms:300000}") long intervaloMinimoMs) {
+        this.rankingService = rankingService;
+        this.rankingLiderancaService = rankingLiderancaService;
+        this.executor = executor;
+        this.intervaloMinimoMs = intervaloMinimoMs;
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "ranking-atualizacao-temporizador");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tempoNaFila = Timer.builder("ranking.atualizacao.fila")
+            .description("Tempo entre o envio ao executor e o início do recálculo")
+            .register(meterRegistry);
+        this.duracao = Timer.builder("ranking.atualizacao.duracao")
+            .description("Duração de cada recálculo de ranking")
+            .register(meterRegistry);
+        this.descartes = Counter.builder("ranking.atualizacao.descartes")
+            .description("Tentativas recusadas por fila cheia (a chave é reenviada depois)")
+            .register(meterRegistry);
+        meterRegistry.gauge("ranking.atualizacao.pendentes", this, RankingAtualizacaoService::pendentes);
+    }
+
+    /**
+     * Recálculo pedido por uma leitura que serviu um ranking velho. Snapshots
+     * gerais só são regravados pela instância líder; os de amigos vivem em
+     * memória e são recalculados em qualquer instância.
+     */
+    @EventListener
+    public void onRankingDesatualizado(RankingDesatualizadoEvent event) {
+        if (event.getTipoRanking() == TipoRanking.GERAL && !rankingLiderancaService.souLider()) {
+            return;
+        }
+        solicitar(new Chave(event.getTipoRanking(), event.getPeriodoRanking(), event.getUsuarioId()));
+    }
+
+    public void solicitarGeral(PeriodoRanking periodo) {
+        solicitar(new Chave(TipoRanking.GERAL, periodo, null));
+    }
+
+    public void solicitar(Chave chave) {
+        synchronized (estados) {
+            Estado estado = estados.computeIfAbsent(chave, c -> new Estado());
+            if (estado.executando) {
+                estado.pendenteAposExecucao = true;
+                return;
+            }
+            if (!estado.agendado) {
+                agendar(chave, estado);
+            }
+        }
+    }
+
+    private void agendar(Chave chave, Estado estado) {
+        estado.agendado = true;
+        long atraso = Math.max(0, estado.ultimaExecucao + intervaloMinimoMs - System.currentTimeMillis());
+        log.debug("⏳ Recálculo de {} agendado em {} ms", chave, atraso);
+        armar(chave, atraso);
+    }
+
+    private void armar(Chave chave, long atraso) {
+        try {
+            temporizador.schedule(() -> enviar(chave), atraso, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Temporizador parado (aplicação encerrando): envia já em vez de perder o pedido
+            log.debug("Aplicação encerrando, recálculo de {} enviado sem esperar", chave);
+            enviar(chave);
+        }
+    }
+
+    private void enviar(Chave chave) {
+        synchronized (estados) {
+            Estado estado = estados.get(chave);
+            if (estado == null || estado.enviado) {
+                return;
+            }
+            estado.enviado = true;
+        }
+        long enviadoEm = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                tempoNaFila.record(System.nanoTime() - enviadoEm, TimeUnit.NANOSECONDS);
+                executar(chave);
+            });
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: descarta esta tentativa, mas a chave segue agendada,
+            // então novos pedidos continuam sendo absorvidos por ela
+            descartes.increment();
+            synchronized (estados) {
+                estados.get(chave).enviado = false;
+            }
+            if (temporizador.isShutdown()) {
+                log.warn("⚠️ Recálculo de {} recusado durante o encerramento", chave);
+                return;
+            }
+            long atraso = Math.max(intervaloMinimoMs, ATRASO_MINIMO_APOS_DESCARTE_MS);
+            log.warn("⚠️ Fila de rankings cheia, recálculo de {} reenviado em {} ms", chave, atraso);
+            armar(chave, atraso);
+        }
+    }
+
+    private void executar(Chave chave) {
+        Estado estado;
+        synchronized (estados) {
+            estado = estados.get(chave);
+            estado.agendado = false;
+            estado.enviado = false;
+            estado.executando = true;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            log.info("📊 Atualizando ranking {} - {}", chave.tipo(), chave.periodo());
+            if (chave.tipo() == TipoRanking.GERAL) {
+                rankingService.calcularERankingGeral(chave.periodo());
+            } else {
+                rankingService.calcularERankingAmigos(chave.usuarioId(), chave.periodo());
+            }
+        } catch (Exception e) {
+            log.error("❌ Erro ao atualizar ranking {}: {}", chave, e.getMessage(), e);
+        } finally {
+            duracao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            synchronized (estados) {
+                estado.executando = false;
+                estado.ultimaExecucao = System.currentTimeMillis();
+                if (estado.pendenteAposExecucao) {
+                    estado.pendenteAposExecucao = false;
+                    agendar(chave, estado);
+                } else {
+                    descartarSeOcioso(chave, estado, intervaloMinimoMs);
+                }
+            }
+        }
+    }
+
+    // A última execução só importa até o intervalo mínimo passar; depois disso
+    // um pedido novo pode rodar na hora, então o estado não precisa ficar
+    private void descartarSeOcioso(Chave chave, Estado estado, long atraso) {
+        try {
+            temporizador.schedule(() -> {
+                synchronized (estados) {
+                    if (!estado.agendado && !estado.executando) {
+                        estados.remove(chave, estado);
+                    }
+                }
+            }, atraso, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Aplicação encerrando, estado de {} mantido", chave);
+        }
+    }
+
+    private double pendentes() {
+        synchronized (estados) {
+            return estados.values().stream().filter(estado -> estado.agendado).count();
+        }
+    }
+
+    /**
+     * Para o temporizador e entrega ao executor as chaves que ainda esperavam
+     * o intervalo mínimo, para não perder recálculos já agrupados. O executor
+     * é encerrado depois deste bean e drena as tarefas enfileiradas.
+     */
+    @PreDestroy
+    public void encerrar() {
+        temporizador.shutdownNow();
+        try {
+            temporizador.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Chave> pendentes;
+        synchronized (estados) {
+            pendentes = estados.entrySet().stream()
+                .filter(entrada -> entrada.getValue().agendado && !entrada.getValue().enviado)
+                .map(Map.Entry::getKey)
+                .toList();
+        }
+        if (!pendentes.isEmpty()) {
+            log.info("🛑 Enviando {} recálculos pendentes antes de encerrar", pendentes.size());
+        }
+        for (Chave chave : pendentes) {
+            enviar(chave);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import lombok.Getter;
+
+@Getter
+public class RankingAtualizadoEvent {
+    private final TipoRanking tipoRanking;
+    private final PeriodoRanking periodoRanking;
+
+    public RankingAtualizadoEvent(TipoRanking tipoRanking, PeriodoRanking periodoRanking) {
+        this.tipoRanking = tipoRanking;
+        this.periodoRanking = periodoRanking;
+    }
+}
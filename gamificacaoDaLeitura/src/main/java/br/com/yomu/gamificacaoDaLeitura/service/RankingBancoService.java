@@ -0,0 +1,206 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.PosicaoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Ranking geral calculado pelo Postgres.
+ *
+ * A view materializada ranking_posicoes guarda, por período, o XP de cada
+ * usuário com RANK()/DENSE_RANK()/ROW_NUMBER() já calculados. Ela é
+ * atualizada com REFRESH CONCURRENTLY, então as leituras nunca bloqueiam.
+ * As janelas seguem o {@link CalendarioRanking}: o REFRESH logo após a
+ * virada já passa a somar só a semana, o mês ou o ano novos.
+ *
+ * Só as consultas do ranking geral (página, posição, vizinhança) saem da
+ * view. Os rankings de amigos, o percentil e as temporadas continuam lendo os
+ * placares do {@link RankingMemoriaService}, que segue ativo com este backend.
+ *
+ * Ativado com {@code yomu.ranking.backend=banco}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "yomu.ranking.backend", havingValue = "banco")
+@RequiredArgsConstructor
+@Slf4j
+public class RankingBancoService implements RankingConsulta {
+
+    private static final String VERSAO_VIEW = "v3";
+    // Serializa a criação da view entre instâncias que sobem juntas ("YOMV" em ASCII)
+    private static final long CHAVE_LOCK_VIEW = 0x594F4D56L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RankingRepository rankingRepository;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final CalendarioRanking calendarioRanking;
+    private final TransactionTemplate transactionTemplate;
+
+    // A view só muda a cada REFRESH: o total de cada período é lido uma vez por intervalo de refresh
+    @Value("${yomu.ranking.banco.refresh-ms:60000}")
+    private long intervaloRefreshMs = 60_000;
+    private volatile Map<PeriodoRanking, Integer> totais = Map.of();
+    private volatile long totaisLidosEm;
+
+    // Lock de transação, como na eleição do líder: o pooler em modo transação não segura lock de sessão.
+    // Quem espera o lock encontra a view já na versão certa e não faz nada
+    @EventListener(ApplicationReadyEvent.class)
+    public void criarView() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + CHAVE_LOCK_VIEW + ")");
+            criarViewSeNecessario();
+        });
+    }
+
+    private void criarViewSeNecessario() {
+        // O comentário da view guarda a versão da consulta; se mudou (ou mudou o fuso), ela é recriada
+        String versao = VERSAO_VIEW + " " + calendarioRanking.getFuso().getId();
+        List<String> atual = jdbcTemplate.queryForList(
+            "SELECT COALESCE(obj_description(c.oid, 'pg_class'), '') FROM pg_class c " +
+            "WHERE c.relname = 'ranking_posicoes' AND c.relkind = 'm'", String.class);
+        if (!atual.isEmpty() && atual.get(0).equals(versao)) {
+            log.info("🗄️  View ranking_posicoes já está na versão {}", versao);
+            return;
+        }
+        if (!atual.isEmpty()) {
+            log.info("🗄️  Recriando ranking_posicoes ({} -> {})", atual.get(0), versao);
+            jdbcTemplate.execute("DROP MATERIALIZED VIEW IF EXISTS ranking_posicoes");
+        }
+        jdbcTemplate.execute("CREATE MATERIALIZED VIEW IF NOT EXISTS ranking_posicoes AS " + consultaPosicoes());
+        jdbcTemplate.execute("COMMENT ON MATERIALIZED VIEW ranking_posicoes IS '" + versao + "'");
+        // O índice único é exigido pelo REFRESH ... CONCURRENTLY
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS ux_ranking_posicoes_usuario " +
+                             "ON ranking_posicoes (periodo, usuario_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_ranking_posicoes_ordem ON ranking_posicoes (periodo, ordem)");
+        log.info("🗄️  View ranking_posicoes pronta");
+    }
+
+    @Scheduled(fixedDelayString = "${yomu.ranking.banco.refresh-ms:60000}",
+               initialDelayString = "${yomu.ranking.banco.refresh-ms:60000}")
+    public void atualizarView() {
+        // A view é compartilhada: só a instância líder faz o REFRESH
+        if (!rankingLiderancaService.souLider()) {
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY ranking_posicoes");
+        totaisLidosEm = 0;
+        log.debug("🔄 ranking_posicoes atualizada em {} ms", System.currentTimeMillis() - inicio);
+    }
+
+    @Override
+    public int total(PeriodoRanking periodo) {
+        Map<PeriodoRanking, Integer> atuais = totais;
+        if (System.currentTimeMillis() - totaisLidosEm > intervaloRefreshMs) {
+            atuais = lerTotais();
+        }
+        return atuais.getOrDefault(periodo, 0);
+    }
+
+    private synchronized Map<PeriodoRanking, Integer> lerTotais() {
+        long agora = System.currentTimeMillis();
+        if (agora - totaisLidosEm <= intervaloRefreshMs) {
+            return totais;
+        }
+        Map<PeriodoRanking, Integer> lidos = new EnumMap<>(PeriodoRanking.class);
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            lidos.put(periodo, (int) rankingRepository.ultimaOrdem(periodo.name()));
+        }
+        totais = lidos;
+        totaisLidosEm = agora;
+        return lidos;
+    }
+
+    // A view é atualizada pelo seu próprio agendamento; o atraso máximo é o intervalo de refresh
+    @Override
+    public void prepararSnapshot(long idadeMaximaMs) {
+    }
+
+    @Override
+    public List<RankingItemDTO> topo(PeriodoRanking periodo, int offset, int limite) {
+        return paraItens(rankingRepository.buscarPagina(periodo.name(), Math.max(0, offset), limite));
+    }
+
+    @Override
+    public Optional<RankingItemDTO> buscarItem(PeriodoRanking periodo, UUID usuarioId) {
+        return rankingRepository.buscarPosicao(periodo.name(), usuarioId).map(this::paraItem);
+    }
+
+    @Override
+    public List<RankingItemDTO> vizinhanca(PeriodoRanking periodo, UUID usuarioId, int janela) {
+        return rankingRepository.buscarPosicao(periodo.name(), usuarioId)
+            .map(posicao -> paraItens(rankingRepository.buscarFaixa(
+                periodo.name(), posicao.getOrdem() - janela, posicao.getOrdem() + janela)))
+            .orElse(List.of());
+    }
+
+    // TOTAL vem de usuarios.xp_total; os demais somam a consolidação diária desde o início
+    // da janela do calendário (date_trunc com 'week' começa na segunda, como a semana ISO)
+    private String consultaPosicoes() {
+        StringJoiner janelas = new StringJoiner(", ");
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            if (periodo.possuiJanela()) {
+                janelas.add("('" + periodo.name() + "', '" + unidadeSql(periodo) + "')");
+            }
+        }
+        String hoje = "(now() AT TIME ZONE '" + calendarioRanking.getFuso().getId() + "')";
+        return "WITH xp AS (" +
+               "SELECT '" + PeriodoRanking.TOTAL.name() + "' AS periodo, u.id AS usuario_id, u.xp_total AS xp " +
+               "FROM usuarios u " +
+               "UNION ALL " +
+               "SELECT j.periodo, u.id, COALESCE(SUM(d.xp), 0) " +
+               "FROM (VALUES " + janelas + ") AS j(periodo, unidade) " +
+               "CROSS JOIN usuarios u " +
+               "LEFT JOIN progressos_diarios d ON d.usuario_id = u.id AND d.dia >= CAST(date_trunc(j.unidade, " + hoje + ") AS date) " +
+               "GROUP BY j.periodo, u.id" +
+               ") " +
+               "SELECT periodo, usuario_id, xp, " +
+               "RANK() OVER (PARTITION BY periodo ORDER BY xp DESC) AS posicao, " +
+               "DENSE_RANK() OVER (PARTITION BY periodo ORDER BY xp DESC) AS posicao_densa, " +
+               "ROW_NUMBER() OVER (PARTITION BY periodo ORDER BY xp DESC, usuario_id) AS ordem " +
+               "FROM xp";
+    }
+
+    private static String unidadeSql(PeriodoRanking periodo) {
+        return switch (periodo.getUnidade()) {
+            case WEEKS -> "week";
+            case MONTHS -> "month";
+            case YEARS -> "year";
+            default -> throw new IllegalArgumentException("Janela sem equivalente no Postgres: " + periodo);
+        };
+    }
+
+    private List<RankingItemDTO> paraItens(List<PosicaoRanking> linhas) {
+        return linhas.stream().map(this::paraItem).toList();
+    }
+
+    private RankingItemDTO paraItem(PosicaoRanking linha) {
+        return new RankingItemDTO(
+            linha.getPosicao().intValue(),
+            linha.getUsuarioId(),
+            linha.getNomeUsuario(),
+            linha.getFotoPerfil(),
+            linha.getNivelAtual(),
+            linha.getXp()
+        );
+    }
+}
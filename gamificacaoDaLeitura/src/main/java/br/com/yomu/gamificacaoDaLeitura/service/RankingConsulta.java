@@ -0,0 +1,29 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Consultas do ranking geral. A implementação é escolhida por
+ * {@code yomu.ranking.backend}: "memoria" (padrão) ou "banco".
+ */
+public interface RankingConsulta {
+
+    int total(PeriodoRanking periodo);
+
+    List<RankingItemDTO> topo(PeriodoRanking periodo, int offset, int limite);
+
+    Optional<RankingItemDTO> buscarItem(PeriodoRanking periodo, UUID usuarioId);
+
+    List<RankingItemDTO> vizinhanca(PeriodoRanking periodo, UUID usuarioId, int janela);
+
+    /**
+     * Chamado antes de gravar um snapshot do ranking geral: as leituras seguintes
+     * devem refletir o banco com no máximo {@code idadeMaximaMs} de atraso.
+     */
+    void prepararSnapshot(long idadeMaximaMs);
+}
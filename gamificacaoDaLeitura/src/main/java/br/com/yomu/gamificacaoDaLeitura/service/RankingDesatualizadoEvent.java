@@ -0,0 +1,22 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import lombok.Getter;
+
+import java.util.UUID;
+
+// Publicado por uma leitura que serviu um ranking mais velho que o frescor máximo
+@Getter
+public class RankingDesatualizadoEvent {
+    private final TipoRanking tipoRanking;
+    private final PeriodoRanking periodoRanking;
+    // Só para rankings de amigos
+    private final UUID usuarioId;
+
+    public RankingDesatualizadoEvent(TipoRanking tipoRanking, PeriodoRanking periodoRanking, UUID usuarioId) {
+        this.tipoRanking = tipoRanking;
+        this.periodoRanking = periodoRanking;
+        this.usuarioId = usuarioId;
+    }
+}
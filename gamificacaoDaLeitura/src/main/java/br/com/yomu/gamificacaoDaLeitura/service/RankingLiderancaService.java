@@ -0,0 +1,119 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.LiderancaStatusDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.LiderancaRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.LiderancaRankingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eleição da instância que recalcula os rankings.
+ *
+ * Em produção a conexão passa pelo pooler do Supabase em modo transação, onde
+ * um pg_try_advisory_lock de sessão ficaria preso a uma conexão física
+ * qualquer. Por isso a eleição usa pg_try_advisory_xact_lock, que vale só
+ * dentro da transação, e guarda o resultado num lease em ranking_lideranca:
+ * quem segura o lock assume ou renova o lease se ele for seu ou já tiver
+ * expirado. Se o líder cair, outra instância assume no primeiro heartbeat
+ * depois da expiração.
+ */
+@Service
+@Slf4j
+public class RankingLiderancaService {
+
+    public static final String ID_LIDERANCA = "ranking";
+    // "YOMU" em ASCII, para não colidir com outros advisory locks do banco
+    private static final long CHAVE_LOCK = 0x594F4D55L;
+
+    private final LiderancaRankingRepository liderancaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long leaseMs;
+    private final String instancia;
+
+    // Prazo local (System.nanoTime) até o qual esta instância se considera líder
+    private volatile long liderAteNanos;
+    private volatile boolean lider;
+
+    public RankingLiderancaService(
+            LiderancaRankingRepository liderancaRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${yomu.ranking.lideranca.lease-ms:90000}") long leaseMs) {
+        this.liderancaRepository = liderancaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseMs = leaseMs;
+        this.instancia = identificarInstancia();
+    }
+
+    @Scheduled(fixedDelayString = "${yomu.ranking.lideranca.heartbeat-ms:30000}")
+    public void renovar() {
+        // Conta o prazo a partir de antes da transação, para nunca passar do lease do banco
+        long inicio = System.nanoTime();
+        try {
+            Optional<String> atual = transactionTemplate.execute(status -> {
+                if (!liderancaRepository.tentarBloquear(CHAVE_LOCK)) {
+                    return Optional.<String>empty();
+                }
+                return liderancaRepository.assumir(ID_LIDERANCA, instancia, leaseMs / 1000.0);
+            });
+            boolean assumiu = atual != null && atual.filter(instancia::equals).isPresent();
+            liderAteNanos = assumiu ? inicio + TimeUnit.MILLISECONDS.toNanos(leaseMs) : inicio;
+            if (assumiu != lider) {
+                log.info(assumiu ? "👑 {} assumiu a liderança dos rankings" : "👋 {} deixou a liderança dos rankings",
+                        instancia);
+            }
+            lider = assumiu;
+        } catch (Exception e) {
+            // Sem banco não dá para garantir o lease; deixa de agir como líder
+            liderAteNanos = inicio;
+            lider = false;
+            log.error("❌ Erro ao renovar liderança dos rankings: {}", e.getMessage());
+        }
+    }
+
+    public boolean souLider() {
+        return lider && System.nanoTime() - liderAteNanos < 0;
+    }
+
+    public void registrarExecucao(long duracaoMs) {
+        Integer atualizadas = transactionTemplate.execute(status ->
+            liderancaRepository.registrarExecucao(ID_LIDERANCA, instancia, duracaoMs));
+        if (atualizadas == null || atualizadas == 0) {
+            log.warn("⚠️  Liderança perdida durante o recálculo; duração de {} ms não registrada", duracaoMs);
+        }
+    }
+
+    public LiderancaStatusDTO status() {
+        Optional<LiderancaRanking> lideranca = liderancaRepository.findById(ID_LIDERANCA);
+        return new LiderancaStatusDTO(
+            lideranca.map(LiderancaRanking::getLider).orElse(null),
+            instancia,
+            souLider(),
+            lideranca.map(LiderancaRanking::getExpiraEm).orElse(null),
+            lideranca.map(LiderancaRanking::getUltimaExecucaoEm).orElse(null),
+            lideranca.map(LiderancaRanking::getUltimaDuracaoMs).orElse(null)
+        );
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    private static String identificarInstancia() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "desconhecido";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
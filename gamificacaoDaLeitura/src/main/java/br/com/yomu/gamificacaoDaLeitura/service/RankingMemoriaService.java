@@ -0,0 +1,446 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoDiarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpDiario;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Mantém em memória um placar por PeriodoRanking, atualizado a cada XP ganho
+ * relendo do banco só o usuário que ganhou. Responde "top K", "posição do usuário X" e "usuários ao
+ * redor de X" sem consultar o banco.
+ *
+ * Os placares são reconstruídos a partir do Postgres na inicialização,
+ * periodicamente e na virada de qualquer janela do {@link CalendarioRanking}
+ * (meia-noite no fuso dos rankings), quando o XP da semana, mês ou ano
+ * anterior deixa de contar. Cada placar guarda a janela para a qual foi montado.
+ *
+ * Junto de cada placar fica um {@link HistogramaXp}, mantido nas mesmas
+ * atualizações, para estimar posição e percentil sem percorrer o placar.
+ *
+ * Com várias instâncias, o XP ganho em qualquer uma chega às outras pelo
+ * barramento (ver {@link RankingAsyncService}) como "releia este usuário", e a
+ * líder relê o banco antes de gravar um snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RankingMemoriaService implements RankingConsulta {
+
+    private record Perfil(String nomeUsuario, String fotoPerfil, Integer nivel) {}
+
+    private final UsuarioRepository usuarioRepository;
+    private final ProgressoDiarioRepository progressoDiarioRepository;
+    private final CalendarioRanking calendarioRanking;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<PeriodoRanking, CalendarioRanking.Janela> janelas = new EnumMap<>(PeriodoRanking.class);
+    private Map<PeriodoRanking, PlacarRanking> placares = novosPlacares();
+    private Map<PeriodoRanking, HistogramaXp> histogramas = novosHistogramas();
+    private Map<UUID, Perfil> perfis = new HashMap<>();
+    // Início da última reconstrução, em System.currentTimeMillis()
+    private volatile long reconstruidoEm;
+    // Usuários relidos enquanto uma reconstrução lê o banco; null fora dela
+    private Set<UUID> relidosNaReconstrucao;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${yomu.ranking.reconstrucao-ms:3600000}",
+               initialDelayString = "${yomu.ranking.reconstrucao-ms:3600000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            relidosNaReconstrucao = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LocalDate hoje = calendarioRanking.hoje();
+        Map<PeriodoRanking, CalendarioRanking.Janela> novasJanelas = new EnumMap<>(PeriodoRanking.class);
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            novasJanelas.put(periodo, calendarioRanking.janela(periodo));
+        }
+
+        Map<UUID, Perfil> novosPerfis = new HashMap<>();
+        ConstrutorPlacares construtor = new ConstrutorPlacares(hoje);
+
+        // Projeções lidas em cursor: nenhuma entidade gerenciada fica no contexto de persistência
+        try (Stream<UsuarioRanking> usuarios = usuarioRepository.streamParaRanking()) {
+            usuarios.forEach(usuario -> {
+                novosPerfis.put(usuario.getId(), perfilDe(usuario));
+                construtor.adicionarUsuario(usuario.getId(), usuario.getXpTotal());
+            });
+        }
+
+        // Uma única leitura da consolidação diária alimenta todas as janelas
+        try (Stream<XpDiario> linhas = progressoDiarioRepository.streamDesde(ConstrutorPlacares.primeiroDia(hoje))) {
+            linhas.forEach(linha -> construtor.acumular(linha.getUsuarioId(), linha.getDia(), linha.getXp()));
+        }
+        Map<PeriodoRanking, HistogramaXp> novosHistogramas = construtor.histogramas();
+        Map<PeriodoRanking, PlacarRanking> novos = construtor.construir();
+
+        Map<PeriodoRanking, CalendarioRanking.Janela> anteriores;
+        Set<UUID> relidos;
+        lock.writeLock().lock();
+        try {
+            anteriores = janelas;
+            janelas = novasJanelas;
+            placares = novos;
+            histogramas = novosHistogramas;
+            perfis = novosPerfis;
+            reconstruidoEm = inicio;
+            relidos = relidosNaReconstrucao;
+            relidosNaReconstrucao = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // XP gravado durante a leitura pode ter ficado de fora dela: relê esses usuários
+        // nos placares novos. Os gravados antes já estão nela e a releitura não soma nada
+        for (UUID usuarioId : relidos) {
+            recarregarUsuario(usuarioId);
+        }
+        log.info("🏗️  Placares em memória reconstruídos: {} usuários em {} ms",
+                novosPerfis.size(), System.currentTimeMillis() - inicio);
+
+        // Snapshots gravados na janela anterior não valem mais: pede o recálculo
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            CalendarioRanking.Janela anterior = anteriores.get(periodo);
+            if (anterior != null && !anterior.equals(novasJanelas.get(periodo))) {
+                log.info("📅 Virada da janela {}: {} -> {}", periodo, anterior.chave(), novasJanelas.get(periodo).chave());
+                eventPublisher.publishEvent(new RankingDesatualizadoEvent(TipoRanking.GERAL, periodo, null));
+            }
+        }
+    }
+
+    /**
+     * O placar só conhece o XP que passou por esta instância: reconstrói se a
+     * última reconstrução começou há mais de {@code idadeMaximaMs}. Snapshots de
+     * vários períodos pedidos juntos compartilham uma só leitura do banco.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public synchronized void prepararSnapshot(long idadeMaximaMs) {
+        if (System.currentTimeMillis() - reconstruidoEm > idadeMaximaMs) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Na virada de uma janela os placares afetados recomeçam do zero. A
+     * reconstrução também pega viradas que este agendamento tenha perdido.
+     */
+    @Scheduled(cron = "0 0 0 * * *", zone = "${yomu.ranking.fuso:America/Sao_Paulo}")
+    @Transactional(readOnly = true)
+    public void verificarVirada() {
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            if (!calendarioRanking.janela(periodo).equals(janela(periodo))) {
+                reconstruir();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Janela do calendário que o placar do período representa agora.
+     */
+    public CalendarioRanking.Janela janela(PeriodoRanking periodo) {
+        lock.readLock().lock();
+        try {
+            return janelas.get(periodo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Relê do banco o XP do usuário em cada período e o grava nos placares. O
+     * valor é absoluto: a mesma notificação aplicada duas vezes, fora de ordem ou
+     * perdida e seguida de outra deixa o placar igual ao banco. Dentro de uma
+     * janela o XP só cresce, então uma leitura mais velha nunca rebaixa o placar.
+     */
+    @Transactional(readOnly = true)
+    public void recarregarUsuario(UUID usuarioId) {
+        while (true) {
+            Map<PeriodoRanking, CalendarioRanking.Janela> lidas = janelasAtuais();
+            Optional<UsuarioRanking> usuario = lidas.isEmpty()
+                    ? Optional.empty() : usuarioRepository.buscarParaRanking(usuarioId);
+            Map<PeriodoRanking, Long> xps = usuario.isEmpty()
+                    ? Map.of() : xpPorPeriodo(usuario.get(), lidas);
+
+            lock.writeLock().lock();
+            try {
+                if (relidosNaReconstrucao != null) {
+                    relidosNaReconstrucao.add(usuarioId);
+                }
+                if (lidas != janelas) {
+                    // Uma reconstrução trocou os placares durante a leitura: relê nas janelas novas
+                    continue;
+                }
+                if (usuario.isEmpty()) {
+                    // Placares ainda não montados, ou usuário excluído (remover cuida dele)
+                    return;
+                }
+                perfis.put(usuarioId, perfilDe(usuario.get()));
+                xps.forEach((periodo, xp) -> {
+                    PlacarRanking placar = placares.get(periodo);
+                    HistogramaXp histograma = histogramas.get(periodo);
+                    if (!placar.contem(usuarioId)) {
+                        histograma.adicionar(xp);
+                        placar.atualizar(usuarioId, xp);
+                    } else if (xp > placar.xpDe(usuarioId)) {
+                        histograma.mover(placar.xpDe(usuarioId), xp);
+                        placar.atualizar(usuarioId, xp);
+                    }
+                });
+                return;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Map<PeriodoRanking, CalendarioRanking.Janela> janelasAtuais() {
+        lock.readLock().lock();
+        try {
+            return janelas;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mesmas regras do ConstrutorPlacares: TOTAL vem de usuarios, os demais somam a consolidação diária da janela
+    private Map<PeriodoRanking, Long> xpPorPeriodo(UsuarioRanking usuario, Map<PeriodoRanking, CalendarioRanking.Janela> lidas) {
+        Map<PeriodoRanking, Long> xps = new EnumMap<>(PeriodoRanking.class);
+        LocalDate primeiroDia = null;
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            LocalDate inicio = lidas.get(periodo).inicio();
+            if (inicio == null) {
+                xps.put(periodo, usuario.getXpTotal() != null ? usuario.getXpTotal() : 0L);
+            } else {
+                xps.put(periodo, 0L);
+                primeiroDia = primeiroDia == null || inicio.isBefore(primeiroDia) ? inicio : primeiroDia;
+            }
+        }
+        if (primeiroDia != null) {
+            for (XpDiario linha : progressoDiarioRepository.buscarDoUsuarioDesde(usuario.getId(), primeiroDia)) {
+                lidas.forEach((periodo, janela) -> {
+                    if (janela.inicio() != null && !linha.getDia().isBefore(janela.inicio())) {
+                        xps.merge(periodo, linha.getXp(), Long::sum);
+                    }
+                });
+            }
+        }
+        return xps;
+    }
+
+    /**
+     * Registra um usuário novo (com XP zero) ou atualiza o perfil exibido no ranking.
+     */
+    public void registrarUsuario(Usuario usuario) {
+        lock.writeLock().lock();
+        try {
+            perfis.put(usuario.getId(), perfilDe(usuario));
+            for (Map.Entry<PeriodoRanking, PlacarRanking> entrada : placares.entrySet()) {
+                PlacarRanking placar = entrada.getValue();
+                if (!placar.contem(usuario.getId())) {
+                    placar.atualizar(usuario.getId(), 0L);
+                    histogramas.get(entrada.getKey()).adicionar(0L);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(UUID usuarioId) {
+        lock.writeLock().lock();
+        try {
+            perfis.remove(usuarioId);
+            placares.forEach((periodo, placar) -> {
+                if (placar.contem(usuarioId)) {
+                    histogramas.get(periodo).remover(placar.xpDe(usuarioId));
+                    placar.remover(usuarioId);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int total(PeriodoRanking periodo) {
+        lock.readLock().lock();
+        try {
+            return placares.get(periodo).tamanho();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RankingItemDTO> topo(PeriodoRanking periodo, int offset, int limite) {
+        lock.readLock().lock();
+        try {
+            return paraItens(placares.get(periodo).faixa(offset, limite), Math.max(0, offset) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Posição e percentil aproximados pelo histograma, sem percorrer o placar.
+     * Vazio se o usuário não estiver no ranking.
+     */
+    public Optional<HistogramaXp.Estimativa> estimar(PeriodoRanking periodo, UUID usuarioId) {
+        lock.readLock().lock();
+        try {
+            PlacarRanking placar = placares.get(periodo);
+            if (!placar.contem(usuarioId)) {
+                return Optional.empty();
+            }
+            return Optional.of(histogramas.get(periodo).estimar(placar.xpDe(usuarioId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long xp(PeriodoRanking periodo, UUID usuarioId) {
+        lock.readLock().lock();
+        try {
+            return placares.get(periodo).xpDe(usuarioId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<RankingItemDTO> buscarItem(PeriodoRanking periodo, UUID usuarioId) {
+        lock.readLock().lock();
+        try {
+            PlacarRanking placar = placares.get(periodo);
+            int posicao = placar.posicao(usuarioId);
+            if (posicao < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(paraItem(new PlacarRanking.Entrada(usuarioId, placar.xpDe(usuarioId)), posicao));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Usuários ao redor de X: até {@code janela} posições acima e abaixo dele.
+     */
+    @Override
+    public List<RankingItemDTO> vizinhanca(PeriodoRanking periodo, UUID usuarioId, int janela) {
+        lock.readLock().lock();
+        try {
+            PlacarRanking placar = placares.get(periodo);
+            int posicao = placar.posicao(usuarioId);
+            if (posicao < 0) {
+                return List.of();
+            }
+            int offset = Math.max(0, posicao - 1 - janela);
+            int limite = posicao + janela - offset;
+            return paraItens(placar.faixa(offset, limite), offset + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Converte entradas de outro placar (ex.: de amigos) usando os perfis conhecidos.
+     */
+    public List<RankingItemDTO> itens(List<PlacarRanking.Entrada> entradas, int primeiraPosicao) {
+        lock.readLock().lock();
+        try {
+            return paraItens(entradas, primeiraPosicao);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Item com o perfil atual do usuário e uma posição vinda de outro ranking (ex.: temporada arquivada).
+     */
+    public RankingItemDTO item(UUID usuarioId, long xp, int posicao) {
+        lock.readLock().lock();
+        try {
+            return paraItem(new PlacarRanking.Entrada(usuarioId, xp), posicao);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<RankingItemDTO> paraItens(List<PlacarRanking.Entrada> entradas, int primeiraPosicao) {
+        List<RankingItemDTO> itens = new ArrayList<>(entradas.size());
+        for (int i = 0; i < entradas.size(); i++) {
+            itens.add(paraItem(entradas.get(i), primeiraPosicao + i));
+        }
+        return itens;
+    }
+
+    private RankingItemDTO paraItem(PlacarRanking.Entrada entrada, int posicao) {
+        Perfil perfil = perfis.getOrDefault(entrada.usuarioId(), new Perfil(null, null, 1));
+        return new RankingItemDTO(
+            posicao,
+            entrada.usuarioId(),
+            perfil.nomeUsuario(),
+            perfil.fotoPerfil(),
+            perfil.nivel(),
+            entrada.xp()
+        );
+    }
+
+    private static Perfil perfilDe(Usuario usuario) {
+        return new Perfil(usuario.getNomeUsuario(), usuario.getFotoPerfil(), usuario.getNivelAtual());
+    }
+
+    private static Perfil perfilDe(UsuarioRanking usuario) {
+        return new Perfil(usuario.getNomeUsuario(), usuario.getFotoPerfil(), usuario.getNivelAtual());
+    }
+
+    private static Map<PeriodoRanking, HistogramaXp> novosHistogramas() {
+        Map<PeriodoRanking, HistogramaXp> mapa = new EnumMap<>(PeriodoRanking.class);
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            mapa.put(periodo, new HistogramaXp());
+        }
+        return mapa;
+    }
+
+    private static Map<PeriodoRanking, PlacarRanking> novosPlacares() {
+        Map<PeriodoRanking, PlacarRanking> mapa = new EnumMap<>(PeriodoRanking.class);
+        IndiceUsuarios indice = new IndiceUsuarios();
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            mapa.put(periodo, new PlacarRanking(indice));
+        }
+        return mapa;
+    }
+}
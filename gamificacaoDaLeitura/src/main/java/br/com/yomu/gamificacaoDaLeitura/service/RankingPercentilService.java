@@ -0,0 +1,53 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPercentilDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Posição aproximada e percentil ("você está no top 12%") a partir dos
+ * histogramas de XP do {@link RankingMemoriaService}, em tempo constante.
+ *
+ * Quem pode estar entre os primeiros {@code yomu.ranking.percentil.top-k}
+ * recebe a posição exata do backend de consulta, onde diferença de uma posição
+ * importa.
+ */
+@Service
+@RequiredArgsConstructor
+public class RankingPercentilService {
+
+    private final RankingMemoriaService rankingMemoriaService;
+    private final RankingConsulta rankingConsulta;
+
+    @Value("${yomu.ranking.percentil.top-k:100}")
+    private int topoExato = 100;
+
+    public RankingPercentilDTO obter(PeriodoRanking periodo, UUID usuarioId) {
+        HistogramaXp.Estimativa estimativa = rankingMemoriaService.estimar(periodo, usuarioId)
+            .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado no ranking"));
+        long xp = rankingMemoriaService.xp(periodo, usuarioId);
+
+        if (estimativa.posicaoMinima() <= topoExato) {
+            Optional<RankingItemDTO> item = rankingConsulta.buscarItem(periodo, usuarioId);
+            if (item.isPresent()) {
+                long posicao = item.get().getPosicao();
+                long total = Math.max(estimativa.total(), posicao);
+                return new RankingPercentilDTO(periodo.name(), usuarioId, item.get().getXp(), total,
+                        posicao, true, posicao, posicao, arredondar(100.0 * posicao / total));
+            }
+        }
+        return new RankingPercentilDTO(periodo.name(), usuarioId, xp, estimativa.total(),
+                estimativa.posicao(), false, estimativa.posicaoMinima(), estimativa.posicaoMaxima(),
+                arredondar(estimativa.percentil()));
+    }
+
+    private static double arredondar(double percentil) {
+        return Math.round(percentil * 10) / 10.0;
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guarda o JSON do ranking já codificado (e opcionalmente comprimido com gzip)
+ * por tipo e período. O documento é montado uma vez por versão do snapshot
+ * (metadados de Ranking.dados + linhas de ranking_entradas) e servido sem
+ * serializar de novo. A versão vem de Ranking.versaoAtual.
+ *
+ * Quando um snapshot é regravado a entrada é invalidada em todas as
+ * instâncias pelo {@link CacheInvalidacaoService}.
+ */
+@Service
+@Slf4j
+public class RankingRespostaCache {
+
+    // atualizadoEm é null enquanto o ranking nunca foi calculado (documento vazio)
+    public record RespostaCodificada(byte[] json, byte[] gzip, String etag, LocalDateTime atualizadoEm) {
+
+        // O corpo gzip tem outros bytes, então a ETag forte também precisa ser outra
+        public String etag(boolean comGzip) {
+            return comGzip ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+        }
+    }
+
+    private record Chave(TipoRanking tipo, PeriodoRanking periodo) {
+
+        // Formato do id no barramento: TIPO:PERIODO
+        static Chave de(String id) {
+            int separador = id.indexOf(':');
+            return new Chave(TipoRanking.valueOf(id.substring(0, separador)),
+                             PeriodoRanking.valueOf(id.substring(separador + 1)));
+        }
+    }
+
+    private static final String NAMESPACE = "ranking-resposta";
+
+    private final RankingSnapshotService rankingSnapshotService;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidacaoService cacheInvalidacaoService;
+    private final CacheLocal<Chave, RespostaCodificada> respostas;
+
+    @Value("${yomu.ranking.cache.gzip:true}")
+    private boolean gzipHabilitado;
+
+    public RankingRespostaCache(RankingSnapshotService rankingSnapshotService,
+                                ObjectMapper objectMapper,
+                                CacheInvalidacaoService cacheInvalidacaoService) {
+        this.rankingSnapshotService = rankingSnapshotService;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidacaoService = cacheInvalidacaoService;
+        // Uma entrada por tipo e período: o limite nunca descarta nada
+        this.respostas = new CacheLocal<>(NAMESPACE, Chave::de, cacheInvalidacaoService,
+                                          TipoRanking.values().length * PeriodoRanking.values().length);
+    }
+
+    public RespostaCodificada obter(TipoRanking tipo, PeriodoRanking periodo) {
+        return respostas.obter(new Chave(tipo, periodo), chave -> codificar(chave.tipo(), chave.periodo()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRankingAtualizado(RankingAtualizadoEvent event) {
+        // Já roda depois do commit: publica direto
+        cacheInvalidacaoService.publicar(NAMESPACE, event.getTipoRanking() + ":" + event.getPeriodoRanking());
+    }
+
+    private RespostaCodificada codificar(TipoRanking tipo, PeriodoRanking periodo) {
+        Optional<RankingSnapshotService.Snapshot> snapshot = rankingSnapshotService.carregar(tipo, periodo);
+
+        byte[] json;
+        try {
+            Map<String, Object> documento;
+            if (snapshot.isPresent()) {
+                documento = objectMapper.readValue(snapshot.get().ranking().getDados(), new TypeReference<LinkedHashMap<String, Object>>() {});
+                documento.put("ranking", snapshot.get().itens());
+            } else {
+                // Ainda sem cálculo: responde vazio em vez de falhar; a leitura pede o recálculo
+                documento = new LinkedHashMap<>();
+                documento.put("total_usuarios", 0);
+                documento.put("periodo", periodo.name());
+                documento.put("versao", 0);
+                documento.put("ranking", List.of());
+            }
+            json = objectMapper.writeValueAsBytes(documento);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao codificar ranking", e);
+        }
+        long versao = snapshot.map(s -> s.ranking().getVersaoAtual()).orElse(0L);
+        LocalDateTime atualizadoEm = snapshot.map(s -> s.ranking().getUpdatedAt()).orElse(null);
+        String etag = "\"" + tipo + "-" + periodo + "-v" + versao + "\"";
+        log.debug("Resposta do ranking {} - {} codificada: {} bytes", tipo, periodo, json.length);
+        return new RespostaCodificada(json, gzipHabilitado ? gzip(json) : null, etag, atualizadoEm);
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao comprimir ranking", e);
+        }
+        return saida.toByteArray();
+    }
+}
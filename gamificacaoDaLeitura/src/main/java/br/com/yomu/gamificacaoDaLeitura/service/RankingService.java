@@ -1,113 +1,187 @@
 package br.com.yomu.gamificacaoDaLeitura.service;
 
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPaginaDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingPosicaoDTO;
 import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
-import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
-import br.com.yomu.gamificacaoDaLeitura.model.enums.StatusAmizade;
 import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
-import br.com.yomu.gamificacaoDaLeitura.repository.AmizadeRepository;
-import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoRepository;
 import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
-import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RankingService {
 
+    private static final int LIMITE_MAXIMO_PAGINA = 100;
+    private static final int JANELA_MAXIMA = 50;
+
     private final RankingRepository rankingRepository;
-    private final UsuarioRepository usuarioRepository;
-    private final ProgressoRepository progressoRepository;
-    private final AmizadeRepository amizadeRepository;
+    private final RankingMemoriaService rankingMemoriaService;
+    private final RankingConsulta rankingConsulta;
+    private final RankingAmigosService rankingAmigosService;
+    private final RankingRespostaCache rankingRespostaCache;
+    private final RankingSnapshotService rankingSnapshotService;
+    private final CalendarioRanking calendarioRanking;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // O snapshot persistido guarda só o topo; posições além dele vêm do RankingConsulta
+    @Value("${yomu.ranking.snapshot.top-k:1000}")
+    private int tamanhoSnapshot = 1000;
+
+    // Leituras sempre respondem com o último snapshot; acima desta idade pedem um recálculo em segundo plano
+    @Value("${yomu.ranking.frescor-maximo-ms:600000}")
+    private long frescorMaximoMs = 600_000;
+
+    // Idade máxima do placar em memória usado para gravar um snapshot; mais velho, é relido do banco
+    @Value("${yomu.ranking.snapshot.idade-maxima-placar-ms:60000}")
+    private long idadeMaximaPlacarMs = 60_000;
 
     @Transactional
     public Ranking calcularERankingGeral(PeriodoRanking periodo) {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        
-        Map<String, Object> dadosRanking = calcularRanking(usuarios, periodo, null);
-        
-        return salvarRanking(TipoRanking.GERAL, periodo, dadosRanking);
+        // O snapshot é o que todas as instâncias servem: o backend garante que ele reflita o banco
+        rankingConsulta.prepararSnapshot(idadeMaximaPlacarMs);
+
+        // Lido já ordenado do backend de consulta (placar em memória ou view no banco)
+        List<RankingItemDTO> ranking = rankingConsulta.topo(periodo, 0, tamanhoSnapshot);
+
+        // Metadados vão para Ranking.dados; as posições, para ranking_entradas
+        Map<String, Object> metadados = montarMetadados(periodo, rankingConsulta.total(periodo));
+
+        return rankingSnapshotService.gravar(TipoRanking.GERAL, periodo, metadados, ranking);
     }
 
-    @Transactional
-    public Ranking calcularERankingAmigos(UUID usuarioId, PeriodoRanking periodo) {
-        // Buscar amigos do usuário
-        List<Usuario> amigos = buscarAmigosUsuario(usuarioId);
-        
-        // Adicionar o próprio usuário ao ranking
-        usuarioRepository.findById(usuarioId).ifPresent(amigos::add);
-        
-        Map<String, Object> dadosRanking = calcularRanking(amigos, periodo, usuarioId);
-        
-        return salvarRanking(TipoRanking.AMIGOS, periodo, dadosRanking);
+    public RankingPaginaDTO obterPaginaGeral(PeriodoRanking periodo, int offset, int limit) {
+        int offsetValido = Math.max(0, offset);
+        int limitValido = Math.min(Math.max(1, limit), LIMITE_MAXIMO_PAGINA);
+        return new RankingPaginaDTO(
+            periodo.name(),
+            rankingConsulta.total(periodo),
+            offsetValido,
+            limitValido,
+            rankingConsulta.topo(periodo, offsetValido, limitValido)
+        );
     }
 
-    public Ranking obterRanking(TipoRanking tipo, PeriodoRanking periodo) {
-        return rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo)
-            .orElseThrow(() -> new IllegalArgumentException("Ranking não encontrado. Execute o cálculo primeiro."));
+    public RankingPosicaoDTO obterPosicaoGeral(PeriodoRanking periodo, UUID usuarioId, int janela) {
+        RankingItemDTO item = rankingConsulta.buscarItem(periodo, usuarioId)
+            .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado no ranking"));
+        int janelaValida = Math.min(Math.max(0, janela), JANELA_MAXIMA);
+        return new RankingPosicaoDTO(
+            periodo.name(),
+            rankingConsulta.total(periodo),
+            item,
+            rankingConsulta.vizinhanca(periodo, usuarioId, janelaValida)
+        );
     }
 
-    public Map<String, Object> obterRankingComoMapa(TipoRanking tipo, PeriodoRanking periodo) {
-        Ranking ranking = obterRanking(tipo, periodo);
-        try {
-            return objectMapper.readValue(ranking.getDados(), Map.class);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Erro ao processar dados do ranking", e);
+    /**
+     * Ranking de amigos servido do placar materializado do usuário (somente leitura).
+     * Se ele estiver desatualizado, é servido assim mesmo e o recálculo fica em segundo plano.
+     * O XP dos amigos já chega ao placar a cada progresso, então a idade sozinha não pede
+     * recálculo: só a amizade alterada ou a virada da janela do período.
+     */
+    public Map<String, Object> obterRankingAmigos(UUID usuarioId, PeriodoRanking periodo) {
+        RankingAmigosService.Leitura leitura = rankingAmigosService.obter(usuarioId, periodo);
+        long idadeMs = System.currentTimeMillis() - leitura.construidoEm();
+        boolean outraJanela = !calendarioRanking.janela(periodo).contem(Instant.ofEpochMilli(leitura.construidoEm()));
+        if (leitura.desatualizado() || outraJanela) {
+            eventPublisher.publishEvent(new RankingDesatualizadoEvent(TipoRanking.AMIGOS, periodo, usuarioId));
         }
+        Map<String, Object> resultado = montarResultado(leitura.itens(), periodo, usuarioId);
+        resultado.put("idade_segundos", idadeMs / 1000);
+        return resultado;
+    }
+
+    public Map<String, Object> calcularERankingAmigos(UUID usuarioId, PeriodoRanking periodo) {
+        List<RankingItemDTO> ranking = rankingAmigosService.recalcular(usuarioId, periodo).itens();
+        return montarResultado(ranking, periodo, usuarioId);
+    }
+
+    /**
+     * Entidade do último snapshot. Se o ranking nunca foi calculado, devolve
+     * uma entidade vazia (não persistida) e pede o cálculo em segundo plano.
+     */
+    public Ranking obterRanking(TipoRanking tipo, PeriodoRanking periodo) {
+        Optional<Ranking> ranking = rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo);
+        verificarFrescor(tipo, periodo, ranking.map(Ranking::getUpdatedAt).orElse(null));
+        return ranking.orElseGet(() -> {
+            Ranking vazio = new Ranking();
+            vazio.setTipoRanking(tipo);
+            vazio.setPeriodoRanking(periodo);
+            Map<String, Object> metadados = montarMetadados(periodo, 0);
+            metadados.put("versao", 0);
+            try {
+                vazio.setDados(objectMapper.writeValueAsString(metadados));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Erro ao serializar ranking", e);
+            }
+            return vazio;
+        });
+    }
+
+    /**
+     * Linha do usuário no último snapshot. O snapshot geral guarda só as
+     * primeiras {@code yomu.ranking.snapshot.top-k} posições; abaixo delas a
+     * posição vem do backend de consulta, que pode estar mais nova que o snapshot.
+     */
+    public RankingItemDTO obterPosicaoNoSnapshot(TipoRanking tipo, PeriodoRanking periodo, UUID usuarioId) {
+        return rankingSnapshotService.buscarUsuario(tipo, periodo, usuarioId)
+            .or(() -> tipo == TipoRanking.GERAL ? rankingConsulta.buscarItem(periodo, usuarioId) : Optional.empty())
+            .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado no ranking"));
+    }
+
+    public RankingRespostaCache.RespostaCodificada obterRankingCodificado(TipoRanking tipo, PeriodoRanking periodo) {
+        RankingRespostaCache.RespostaCodificada resposta = rankingRespostaCache.obter(tipo, periodo);
+        verificarFrescor(tipo, periodo, resposta.atualizadoEm());
+        return resposta;
+    }
+
+    /**
+     * Idade do snapshot em segundos, ou null se o ranking nunca foi calculado.
+     */
+    public static Long idadeEmSegundos(LocalDateTime atualizadoEm) {
+        return atualizadoEm == null ? null : Math.max(0, Duration.between(atualizadoEm, LocalDateTime.now()).getSeconds());
     }
 
     @Transactional
     public void atualizarTodosRankings() {
+        rankingMemoriaService.reconstruir();
+
         // Atualizar rankings gerais
         for (PeriodoRanking periodo : PeriodoRanking.values()) {
             calcularERankingGeral(periodo);
         }
     }
 
-    private Map<String, Object> calcularRanking(List<Usuario> usuarios, PeriodoRanking periodo, UUID usuarioContexto) {
-        LocalDateTime dataInicio = calcularDataInicio(periodo);
-        LocalDateTime dataFim = LocalDateTime.now();
-        
-        List<Map<String, Object>> ranking = usuarios.stream()
-            .map(usuario -> {
-                Long xpPeriodo = periodo == PeriodoRanking.TOTAL 
-                    ? usuario.getXpTotal()
-                    : progressoRepository.findByUsuarioIdAndPeriodo(usuario.getId(), dataInicio, dataFim)
-                        .stream()
-                        .mapToLong(p -> p.getXpGerado())
-                        .sum();
-                
-                Map<String, Object> item = new HashMap<>();
-                item.put("usuario_id", usuario.getId().toString());
-                item.put("nome_usuario", usuario.getNomeUsuario());
-                item.put("foto_perfil", usuario.getFotoPerfil());
-                item.put("nivel", usuario.getNivelAtual());
-                item.put("xp", xpPeriodo);
-                
-                return item;
-            })
-            .sorted((a, b) -> Long.compare((Long) b.get("xp"), (Long) a.get("xp")))
-            .collect(Collectors.toList());
-        
-        // Adicionar posições
-        for (int i = 0; i < ranking.size(); i++) {
-            ranking.get(i).put("posicao", i + 1);
+    // Snapshots de amigos não são persistidos; aqui só entram os gerais. Um snapshot
+    // gravado antes do início da janela atual do calendário está velho, qualquer que seja a idade
+    private void verificarFrescor(TipoRanking tipo, PeriodoRanking periodo, LocalDateTime atualizadoEm) {
+        if (tipo != TipoRanking.GERAL) {
+            return;
         }
-        
-        Map<String, Object> resultado = new HashMap<>();
+        if (atualizadoEm == null
+                || Duration.between(atualizadoEm, LocalDateTime.now()).toMillis() > frescorMaximoMs
+                || !calendarioRanking.janela(periodo).contem(calendarioRanking.instante(atualizadoEm))) {
+            eventPublisher.publishEvent(new RankingDesatualizadoEvent(tipo, periodo, null));
+        }
+    }
+
+    private Map<String, Object> montarResultado(List<?> ranking, PeriodoRanking periodo, UUID usuarioContexto) {
+        Map<String, Object> resultado = montarMetadados(periodo, ranking.size());
         resultado.put("ranking", ranking);
-        resultado.put("total_usuarios", ranking.size());
-        resultado.put("periodo", periodo.name());
-        resultado.put("data_atualizacao", LocalDateTime.now().toString());
         
         if (usuarioContexto != null) {
             resultado.put("usuario_contexto", usuarioContexto.toString());
@@ -116,46 +190,16 @@ public class RankingService {
         return resultado;
     }
 
-    private Ranking salvarRanking(TipoRanking tipo, PeriodoRanking periodo, Map<String, Object> dados) {
-        try {
-            String dadosJson = objectMapper.writeValueAsString(dados);
-            
-            Optional<Ranking> rankingExistente = rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo);
-            
-            Ranking ranking;
-            if (rankingExistente.isPresent()) {
-                ranking = rankingExistente.get();
-                ranking.setDados(dadosJson);
-            } else {
-                ranking = new Ranking();
-                ranking.setTipoRanking(tipo);
-                ranking.setPeriodoRanking(periodo);
-                ranking.setDados(dadosJson);
-            }
-            
-            return rankingRepository.save(ranking);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Erro ao salvar ranking", e);
-        }
-    }
-
-    private List<Usuario> buscarAmigosUsuario(UUID usuarioId) {
-        return amizadeRepository.findAmizadesByUsuarioAndStatus(usuarioId, StatusAmizade.ACEITA)
-            .stream()
-            .map(amizade -> {
-                if (amizade.getUsuarioId1().getId().equals(usuarioId)) {
-                    return amizade.getUsuarioId2();
-                } else {
-                    return amizade.getUsuarioId1();
-                }
-            })
-            .collect(Collectors.toList());
-    }
-
-    private LocalDateTime calcularDataInicio(PeriodoRanking periodo) {
-        if (periodo.getDias() == null) {
-            return LocalDateTime.of(2000, 1, 1, 0, 0); // Data muito antiga para TOTAL
+    private Map<String, Object> montarMetadados(PeriodoRanking periodo, int totalUsuarios) {
+        Map<String, Object> metadados = new HashMap<>();
+        metadados.put("total_usuarios", totalUsuarios);
+        metadados.put("periodo", periodo.name());
+        metadados.put("data_atualizacao", LocalDateTime.now().toString());
+        CalendarioRanking.Janela janela = calendarioRanking.janela(periodo);
+        if (janela.inicio() != null) {
+            metadados.put("inicio_periodo", janela.inicio().toString());
+            metadados.put("fim_periodo", janela.fim().toString());
         }
-        return LocalDateTime.now().minusDays(periodo.getDias());
+        return metadados;
     }
-}
\ No newline at end of file
+}
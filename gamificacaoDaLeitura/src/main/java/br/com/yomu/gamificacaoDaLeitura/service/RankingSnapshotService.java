@@ -0,0 +1,128 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.PosicaoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingEntradaRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Snapshots persistidos dos rankings.
+ *
+ * Ranking guarda só os metadados e a versão atual; as posições ficam em
+ * ranking_entradas, uma linha por usuário. Cada gravação insere uma versão
+ * nova em um único batch JDBC e troca Ranking.versaoAtual na mesma transação,
+ * então quem lê vê a versão antiga inteira até o commit e a nova depois dele.
+ *
+ * A versão anterior só é apagada na gravação seguinte: quem leu versaoAtual
+ * pouco antes do commit ainda encontra as linhas dela.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RankingSnapshotService {
+
+    private static final String INSERIR_ENTRADA =
+        "INSERT INTO ranking_entradas (ranking_id, versao, ordem, posicao, usuario_id, xp) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public record Snapshot(Ranking ranking, List<RankingItemDTO> itens) {}
+
+    private final RankingRepository rankingRepository;
+    private final RankingEntradaRepository rankingEntradaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public Ranking gravar(TipoRanking tipo, PeriodoRanking periodo, Map<String, Object> metadados, List<RankingItemDTO> itens) {
+        long inicio = System.currentTimeMillis();
+
+        Ranking ranking = rankingRepository.buscarParaAtualizar(tipo, periodo).orElseGet(() -> {
+            Ranking novo = new Ranking();
+            novo.setTipoRanking(tipo);
+            novo.setPeriodoRanking(periodo);
+            return novo;
+        });
+        long novaVersao = ranking.getVersaoAtual() + 1;
+        metadados.put("versao", novaVersao);
+
+        try {
+            ranking.setDados(objectMapper.writeValueAsString(metadados));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao salvar ranking", e);
+        }
+        ranking.setVersaoAtual(novaVersao);
+        Ranking rankingSalvo = rankingRepository.saveAndFlush(ranking);
+
+        UUID rankingId = rankingSalvo.getId();
+        jdbcTemplate.batchUpdate(INSERIR_ENTRADA, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                RankingItemDTO item = itens.get(i);
+                ps.setObject(1, rankingId);
+                ps.setLong(2, novaVersao);
+                ps.setInt(3, i + 1);
+                ps.setInt(4, item.getPosicao());
+                ps.setObject(5, item.getUsuarioId());
+                ps.setLong(6, item.getXp());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return itens.size();
+            }
+        });
+        int apagadas = rankingEntradaRepository.apagarVersoesAnteriores(rankingId, novaVersao - 1);
+
+        log.info("💾 Snapshot {} - {} v{}: {} entradas gravadas, {} removidas em {} ms",
+                tipo, periodo, novaVersao, itens.size(), apagadas, System.currentTimeMillis() - inicio);
+        eventPublisher.publishEvent(new RankingAtualizadoEvent(tipo, periodo));
+        return rankingSalvo;
+    }
+
+    // Vazio se o ranking ainda nunca foi calculado
+    @Transactional(readOnly = true)
+    public Optional<Snapshot> carregar(TipoRanking tipo, PeriodoRanking periodo) {
+        return rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo).map(ranking -> {
+            List<RankingItemDTO> itens = rankingEntradaRepository.listarVersao(ranking.getId(), ranking.getVersaoAtual())
+                .stream().map(RankingSnapshotService::paraItem).toList();
+            return new Snapshot(ranking, itens);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RankingItemDTO> buscarUsuario(TipoRanking tipo, PeriodoRanking periodo, UUID usuarioId) {
+        return rankingRepository.findByTipoRankingAndPeriodoRanking(tipo, periodo)
+            .flatMap(ranking -> rankingEntradaRepository.buscarUsuario(ranking.getId(), ranking.getVersaoAtual(), usuarioId))
+            .map(RankingSnapshotService::paraItem);
+    }
+
+    private static RankingItemDTO paraItem(PosicaoRanking linha) {
+        return new RankingItemDTO(
+            linha.getPosicao().intValue(),
+            linha.getUsuarioId(),
+            linha.getNomeUsuario(),
+            linha.getFotoPerfil(),
+            linha.getNivelAtual(),
+            linha.getXp()
+        );
+    }
+}
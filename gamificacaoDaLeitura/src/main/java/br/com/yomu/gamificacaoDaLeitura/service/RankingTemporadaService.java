@@ -0,0 +1,207 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.HistoricoPosicaoDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.dto.TemporadaDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.TemporadaRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoDiarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.TemporadaRankingRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.TemporadaResumo;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpPorUsuario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Arquivamento das temporadas encerradas.
+ *
+ * Ao fim de cada janela do {@link CalendarioRanking} (semana ISO, mês e ano), o ranking
+ * daquele intervalo é calculado a partir da consolidação diária e congelado
+ * em ranking_temporadas como um {@link ArquivoTemporada}. As tabelas quentes
+ * (rankings, ranking_entradas) continuam guardando só a versão atual.
+ *
+ * Temporadas não mudam depois de gravadas, então as já decodificadas ficam
+ * num cache LRU local, sem precisar de invalidação entre instâncias.
+ */
+@Service
+@Slf4j
+public class RankingTemporadaService {
+
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final TemporadaRankingRepository temporadaRepository;
+    private final ProgressoDiarioRepository progressoDiarioRepository;
+    private final RankingMemoriaService rankingMemoriaService;
+    private final RankingLiderancaService rankingLiderancaService;
+    private final CalendarioRanking calendarioRanking;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoCache;
+    private final Map<UUID, ArquivoTemporada> decodificadas;
+
+    public RankingTemporadaService(
+            TemporadaRankingRepository temporadaRepository,
+            ProgressoDiarioRepository progressoDiarioRepository,
+            RankingMemoriaService rankingMemoriaService,
+            RankingLiderancaService rankingLiderancaService,
+            CalendarioRanking calendarioRanking,
+            PlatformTransactionManager transactionManager,
+            @Value("${yomu.ranking.temporada.cache:32}") int tamanhoCache) {
+        this.temporadaRepository = temporadaRepository;
+        this.progressoDiarioRepository = progressoDiarioRepository;
+        this.rankingMemoriaService = rankingMemoriaService;
+        this.rankingLiderancaService = rankingLiderancaService;
+        this.calendarioRanking = calendarioRanking;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoCache = tamanhoCache;
+        this.decodificadas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ArquivoTemporada> maisAntiga) {
+                return size() > tamanhoCache;
+            }
+        };
+    }
+
+    /**
+     * Arquiva as temporadas encerradas de cada período que ainda não foram
+     * arquivadas: todas as seguintes à última arquivada, para não perder as que
+     * encerraram com a aplicação fora do ar, ou só a anterior se nenhuma foi.
+     * Roda logo depois da meia-noite (no fuso dos rankings) e só na instância líder.
+     */
+    @Scheduled(cron = "${yomu.ranking.temporada.cron:0 10 0 * * *}", zone = "${yomu.ranking.fuso:America/Sao_Paulo}")
+    public void arquivarEncerradas() {
+        if (!rankingLiderancaService.souLider()) {
+            return;
+        }
+        for (PeriodoRanking periodo : PeriodoRanking.values()) {
+            if (!periodo.possuiJanela()) {
+                continue;
+            }
+            LocalDate inicioAtual = calendarioRanking.janela(periodo).inicio();
+            LocalDate inicioAnterior = periodo.inicioEm(inicioAtual.minusDays(1));
+            LocalDate inicio = temporadaRepository.listarResumos(periodo, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(ultima -> periodo.inicioEm(ultima.getFim().plusDays(1)))
+                .orElse(inicioAnterior);
+            for (; !inicio.isAfter(inicioAnterior); inicio = periodo.fimEm(inicio).plusDays(1)) {
+                arquivarEncerrada(periodo, inicio);
+            }
+        }
+    }
+
+    private void arquivarEncerrada(PeriodoRanking periodo, LocalDate inicio) {
+        try {
+            arquivar(periodo, inicio);
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância arquivou a mesma temporada antes
+            log.debug("Temporada {} de {} já arquivada", periodo, inicio);
+        } catch (Exception e) {
+            log.error("❌ Erro ao arquivar temporada {} de {}: {}", periodo, inicio, e.getMessage(), e);
+        }
+    }
+
+    // Cada temporada na sua transação (o stream da consolidação precisa de uma aberta)
+    public boolean arquivar(PeriodoRanking periodo, LocalDate inicio) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> gravar(periodo, inicio)));
+    }
+
+    private boolean gravar(PeriodoRanking periodo, LocalDate inicio) {
+        if (temporadaRepository.existsByPeriodoRankingAndInicio(periodo, inicio)) {
+            return false;
+        }
+        long comeco = System.currentTimeMillis();
+        LocalDate fim = periodo.fimEm(inicio);
+
+        List<ArquivoTemporada.Linha> linhas = new ArrayList<>();
+        try (Stream<XpPorUsuario> somas = progressoDiarioRepository.streamSomaEntre(inicio, fim)) {
+            somas.forEach(soma -> linhas.add(new ArquivoTemporada.Linha(soma.getUsuarioId(), soma.getXp())));
+        }
+        byte[] dados = ArquivoTemporada.codificar(linhas);
+
+        TemporadaRanking temporada = new TemporadaRanking();
+        temporada.setPeriodoRanking(periodo);
+        temporada.setInicio(inicio);
+        temporada.setFim(fim);
+        temporada.setTotalUsuarios(linhas.size());
+        temporada.setDados(dados);
+        temporadaRepository.saveAndFlush(temporada);
+
+        log.info("🗃️  Temporada {} {} a {} arquivada: {} usuários, {} bytes em {} ms",
+                periodo, inicio, fim, linhas.size(), dados.length, System.currentTimeMillis() - comeco);
+        return true;
+    }
+
+    public List<TemporadaDTO> listar(PeriodoRanking periodo, int limite) {
+        return resumos(periodo, limite).stream()
+            .map(resumo -> new TemporadaDTO(periodo.name(), resumo.getInicio(), resumo.getFim(),
+                    resumo.getTotalUsuarios(), null))
+            .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public TemporadaDTO obter(PeriodoRanking periodo, LocalDate inicio, int offset, int limite) {
+        TemporadaResumo temporada = temporadaRepository.buscarResumo(periodo, periodo.inicioEm(inicio))
+            .orElseThrow(() -> new IllegalArgumentException("Temporada não encontrada"));
+        ArquivoTemporada arquivo = carregar(temporada.getId());
+
+        List<RankingItemDTO> ranking = arquivo.faixa(offset, Math.min(Math.max(1, limite), LIMITE_MAXIMO)).stream()
+            .map(posicao -> rankingMemoriaService.item(posicao.usuarioId(), posicao.xp(), posicao.posicao()))
+            .toList();
+        return new TemporadaDTO(periodo.name(), temporada.getInicio(), temporada.getFim(),
+                temporada.getTotalUsuarios(), ranking);
+    }
+
+    /**
+     * Posições do usuário nas últimas {@code limite} temporadas do período,
+     * mais recentes primeiro. Temporadas em que ele não ganhou XP ficam de fora.
+     * O limite não passa do tamanho do cache, para uma consulta não decodificar
+     * mais temporadas do que cabem nele e descartar as que acabou de ler.
+     */
+    @Transactional(readOnly = true)
+    public List<HistoricoPosicaoDTO> historicoDoUsuario(UUID usuarioId, PeriodoRanking periodo, int limite) {
+        List<HistoricoPosicaoDTO> historico = new ArrayList<>();
+        for (TemporadaResumo resumo : resumos(periodo, Math.min(limite, tamanhoCache))) {
+            ArquivoTemporada.Posicao posicao = carregar(resumo.getId()).buscar(usuarioId);
+            if (posicao != null) {
+                historico.add(new HistoricoPosicaoDTO(periodo.name(), resumo.getInicio(), resumo.getFim(),
+                        posicao.posicao(), posicao.xp(), resumo.getTotalUsuarios()));
+            }
+        }
+        return historico;
+    }
+
+    private List<TemporadaResumo> resumos(PeriodoRanking periodo, int limite) {
+        return temporadaRepository.listarResumos(periodo, PageRequest.of(0, Math.min(Math.max(1, limite), LIMITE_MAXIMO)));
+    }
+
+    private ArquivoTemporada carregar(UUID temporadaId) {
+        synchronized (decodificadas) {
+            ArquivoTemporada arquivo = decodificadas.get(temporadaId);
+            if (arquivo != null) {
+                return arquivo;
+            }
+        }
+        // Decodifica fora do lock; duas leituras simultâneas da mesma temporada geram o mesmo resultado
+        TemporadaRanking temporada = temporadaRepository.findById(temporadaId)
+            .orElseThrow(() -> new IllegalArgumentException("Temporada não encontrada"));
+        ArquivoTemporada arquivo = ArquivoTemporada.decodificar(temporada.getDados());
+        synchronized (decodificadas) {
+            decodificadas.put(temporadaId, arquivo);
+        }
+        return arquivo;
+    }
+}
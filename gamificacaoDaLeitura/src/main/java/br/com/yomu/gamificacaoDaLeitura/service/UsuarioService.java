@@ -2,6 +2,9 @@ package br.com.yomu.gamificacaoDaLeitura.service;
 
 import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
 import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpAtualizado;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +19,19 @@ import java.nio.file.Paths;
 @RequiredArgsConstructor
 public class UsuarioService {
 
+    public record XpAdicionado(long xpTotal, int nivelAnterior, int nivelAtual) {
+
+        public boolean subiuDeNivel() {
+            return nivelAtual > nivelAnterior;
+        }
+    }
+
     private final UsuarioRepository usuarioRepository;
+    private final RankingMemoriaService rankingMemoriaService;
+    private final RankingAmigosService rankingAmigosService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private String salvarImagem(String base64) {
         try {
@@ -71,7 +86,9 @@ public class UsuarioService {
             usuario.setFotoPerfil(url);
         }
         
-        return usuarioRepository.save(usuario);
+        Usuario usuarioSalvo = usuarioRepository.save(usuario);
+        rankingMemoriaService.registrarUsuario(usuarioSalvo);
+        return usuarioSalvo;
     }
 
     public Usuario buscarPorId(UUID id) {
@@ -101,19 +118,24 @@ public class UsuarioService {
             usuario.setFotoPerfil(url);
         }
         
-        return usuarioRepository.save(usuario);
+        Usuario usuarioSalvo = usuarioRepository.save(usuario);
+        rankingMemoriaService.registrarUsuario(usuarioSalvo);
+        return usuarioSalvo;
     }
 
+    // Um usuário já carregado é relido, não alterado: alterá-lo faria o Hibernate gravar a linha de novo no commit
     @Transactional
-    public void adicionarXp(UUID usuarioId, Long xp) {
-        Usuario usuario = buscarPorId(usuarioId);
-        usuario.setXpTotal(usuario.getXpTotal() + xp);
-        
-        // Calcular novo nível (exemplo: a cada 1000 XP = 1 nível)
-        Integer novoNivel = (int) (usuario.getXpTotal() / 1000) + 1;
-        usuario.setNivelAtual(novoNivel);
-        
-        usuarioRepository.save(usuario);
+    public XpAdicionado adicionarXp(Usuario usuario, long xp) {
+        XpAtualizado atualizado = usuarioRepository.incrementarXp(usuario.getId(), xp)
+            .orElseThrow(() -> new IllegalArgumentException("Usuário não encontrado"));
+        if (entityManager.contains(usuario)) {
+            entityManager.refresh(usuario);
+        }
+        return new XpAdicionado(
+            atualizado.getXpTotal(),
+            Usuario.calcularNivel(atualizado.getXpTotal() - xp),
+            atualizado.getNivelAtual()
+        );
     }
 
     public List<Usuario> listarTodos() {
@@ -123,6 +145,8 @@ public class UsuarioService {
     @Transactional
     public void deletar(UUID id) {
         usuarioRepository.deleteById(id);
+        rankingMemoriaService.remover(id);
+        rankingAmigosService.remover(id);
     }
 
     private String gerarCodigoConvite() {
@@ -0,0 +1,171 @@
+package br.com.yomu.gamificacaoDaLeitura.config;
+
+import br.com.yomu.gamificacaoDaLeitura.model.RespostaIdempotente;
+import br.com.yomu.gamificacaoDaLeitura.repository.RespostaIdempotenteRepository;
+import br.com.yomu.gamificacaoDaLeitura.service.IdempotenciaService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotenciaFilterTest {
+
+	private static final String URI = "/api/progressos/usuario/3fa85f64-5717-4562-b3fc-2c963f66afa6/livro/1";
+	private static final String CORPO = "{\"quantidade\":5,\"tipoProgresso\":\"PAGINA\"}";
+
+	private final RespostaIdempotenteRepository repository = mock(RespostaIdempotenteRepository.class);
+	private final IdempotenciaFilter filtro = new IdempotenciaFilter(new IdempotenciaService(
+			repository, mock(PlatformTransactionManager.class), 86_400_000, 60_000, 100));
+	private final AtomicInteger execucoes = new AtomicInteger();
+
+	// Simula o controller: lê o corpo e devolve 201
+	private final FilterChain registrar = (request, response) -> {
+		execucoes.incrementAndGet();
+		String recebido = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertThat(recebido).isEqualTo(CORPO);
+		HttpServletResponse http = (HttpServletResponse) response;
+		http.setStatus(201);
+		http.setContentType("application/json");
+		http.setHeader("Location", "/api/progressos/" + execucoes.get());
+		http.getOutputStream().write(("{\"id\":" + execucoes.get() + ",\"xpGerado\":50}").getBytes(StandardCharsets.UTF_8));
+	};
+
+	@Test
+	void repeticaoDevolveARespostaOriginalSemExecutarDeNovo() throws Exception {
+		when(repository.reservar(anyString(), anyString(), anyDouble())).thenReturn(Optional.of("reservada"));
+
+		MockHttpServletResponse primeira = enviar("chave-1", CORPO, registrar);
+		MockHttpServletResponse repetida = enviar("chave-1", CORPO, registrar);
+
+		assertThat(execucoes).hasValue(1);
+		assertThat(primeira.getStatus()).isEqualTo(201);
+		assertThat(repetida.getStatus()).isEqualTo(201);
+		assertThat(repetida.getContentAsString()).isEqualTo(primeira.getContentAsString());
+		assertThat(repetida.getContentType()).isEqualTo("application/json");
+		assertThat(repetida.getHeader("Location")).isEqualTo("/api/progressos/1");
+		assertThat(repetida.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA)).isEqualTo("true");
+		// A repetição saiu do cache local, sem ir ao banco
+		verify(repository, times(1)).reservar(anyString(), anyString(), anyDouble());
+		verify(repository).concluir(eq("POST " + URI + " chave-1"), eq(201), eq("application/json"),
+				eq("/api/progressos/1"), any());
+	}
+
+	@Test
+	void respostaConcluidaEmOutraInstanciaVemDoBanco() throws Exception {
+		when(repository.reservar(anyString(), anyString(), anyDouble())).thenReturn(Optional.empty());
+		when(repository.findById("POST " + URI + " chave-2")).thenReturn(Optional.of(new RespostaIdempotente(
+				"POST " + URI + " chave-2", sha256(CORPO), 201, "application/json", "/api/progressos/7",
+				"{\"id\":7}".getBytes(StandardCharsets.UTF_8), LocalDateTime.now())));
+
+		MockHttpServletResponse repetida = enviar("chave-2", CORPO, registrar);
+		assertThat(repetida.getStatus()).isEqualTo(201);
+		assertThat(repetida.getContentAsString()).isEqualTo("{\"id\":7}");
+		assertThat(repetida.getHeader("Location")).isEqualTo("/api/progressos/7");
+
+		// Mesmo valor de cabeçalho com outro corpo: recusada
+		MockHttpServletResponse reusada = enviar("chave-2", "{\"quantidade\":50,\"tipoProgresso\":\"PAGINA\"}", registrar);
+		assertThat(reusada.getStatus()).isEqualTo(422);
+		assertThat(execucoes).hasValue(0);
+	}
+
+	@Test
+	void requisicaoOriginalAindaEmAndamentoRecebe409() throws Exception {
+		when(repository.reservar(anyString(), anyString(), anyDouble())).thenReturn(Optional.empty());
+		when(repository.findById(anyString())).thenReturn(Optional.of(new RespostaIdempotente(
+				"POST " + URI + " chave-3", sha256(CORPO), null, null, null, null, LocalDateTime.now())));
+
+		MockHttpServletResponse resposta = enviar("chave-3", CORPO, registrar);
+
+		assertThat(resposta.getStatus()).isEqualTo(409);
+		assertThat(resposta.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(execucoes).hasValue(0);
+	}
+
+	@Test
+	void falhaLiberaAChaveParaANovaTentativa() throws Exception {
+		when(repository.reservar(anyString(), anyString(), anyDouble())).thenReturn(Optional.of("reservada"));
+
+		assertThatThrownBy(() -> enviar("chave-4", CORPO, (request, response) -> {
+			throw new IllegalArgumentException("Livro não encontrado");
+		})).isInstanceOf(IllegalArgumentException.class);
+		MockHttpServletResponse invalida = enviar("chave-4", CORPO, (request, response) ->
+				((HttpServletResponse) response).setStatus(400));
+
+		assertThat(invalida.getStatus()).isEqualTo(400);
+		verify(repository, times(2)).liberar("POST " + URI + " chave-4");
+		verify(repository, never()).concluir(anyString(), any(Integer.class), any(), any(), any());
+	}
+
+	@Test
+	void semCabecalhoNadaMuda() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", URI);
+			request.setContent(CORPO.getBytes(StandardCharsets.UTF_8));
+			filtro.doFilter(request, new MockHttpServletResponse(), registrar);
+		}
+
+		assertThat(execucoes).hasValue(2);
+		verify(repository, never()).reservar(anyString(), anyString(), anyDouble());
+	}
+
+	@Test
+	void corpoAcimaDoLimiteRecusadoSemExecutar() throws Exception {
+		MockHttpServletResponse resposta = enviar("chave-5", "x".repeat(256 * 1024 + 1), registrar);
+
+		assertThat(resposta.getStatus()).isEqualTo(413);
+		assertThat(execucoes).hasValue(0);
+		verify(repository, never()).reservar(anyString(), anyString(), anyDouble());
+	}
+
+	@Test
+	void respostasForaDoRegistroDeProgressoNuncaSaoGuardadas() throws Exception {
+		// O login devolve o usuário: mesmo com o cabeçalho, nada vai para respostas_idempotentes
+		FilterChain login = (request, response) -> execucoes.incrementAndGet();
+		for (int i = 0; i < 2; i++) {
+			enviar("/api/usuarios/login", "chave-6", CORPO, login);
+		}
+
+		assertThat(execucoes).hasValue(2);
+		verify(repository, never()).reservar(anyString(), anyString(), anyDouble());
+	}
+
+	private MockHttpServletResponse enviar(String chave, String corpo, FilterChain chain) throws Exception {
+		return enviar(URI, chave, corpo, chain);
+	}
+
+	private MockHttpServletResponse enviar(String uri, String chave, String corpo, FilterChain chain) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+		request.addHeader(IdempotenciaFilter.CABECALHO, chave);
+		request.setContentType("application/json");
+		request.setContent(corpo.getBytes(StandardCharsets.UTF_8));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filtro.doFilter(request, response, chain);
+		return response;
+	}
+
+	private static String sha256(String corpo) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+				.digest(corpo.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,77 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeradorUuidV7Test {
+
+	@Test
+	void formatoDaRfc9562() {
+		long antes = System.currentTimeMillis();
+		UUID id = GeradorUuidV7.gerar();
+
+		assertThat(id.version()).isEqualTo(7);
+		assertThat(id.variant()).isEqualTo(2);
+		// Pode estar alguns milissegundos à frente se outro teste estourou o contador
+		assertThat(GeradorUuidV7.instante(id)).isBetween(Instant.ofEpochMilli(antes), Instant.now().plusSeconds(1));
+		assertThatThrownBy(() -> GeradorUuidV7.instante(UUID.randomUUID())).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void crescenteMesmoNoMesmoMilissegundoERelogioVoltando() {
+		// Acima de 4096 ids no mesmo milissegundo o contador estoura e o id avança para o milissegundo seguinte
+		long agora = System.currentTimeMillis();
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			ids.add(GeradorUuidV7.gerar(agora));
+		}
+		ids.add(GeradorUuidV7.gerar(agora - 5_000));
+
+		// A ordem do texto é a mesma do Postgres (bytes sem sinal)
+		List<String> texto = ids.stream().map(UUID::toString).toList();
+		assertThat(texto).isSorted().doesNotHaveDuplicates();
+		assertThat(ids).allSatisfy(id -> assertThat(id.version()).isEqualTo(7));
+		assertThat(GeradorUuidV7.instante(ids.get(ids.size() - 1))).isAfterOrEqualTo(Instant.ofEpochMilli(agora + 2));
+	}
+
+	@Test
+	void unicoEntreThreads() throws Exception {
+		Set<UUID> ids = ConcurrentHashMap.newKeySet();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> tarefas = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				tarefas.add(executor.submit(() -> {
+					UUID anterior = null;
+					for (int i = 0; i < 5_000; i++) {
+						UUID id = GeradorUuidV7.gerar();
+						assertThat(ids.add(id)).isTrue();
+						if (anterior != null) {
+							assertThat(id.toString()).isGreaterThan(anterior.toString());
+						}
+						anterior = id;
+					}
+					return null;
+				}));
+			}
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(ids).hasSize(40_000);
+	}
+}
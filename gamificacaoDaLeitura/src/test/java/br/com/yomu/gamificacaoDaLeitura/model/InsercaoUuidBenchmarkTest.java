@@ -0,0 +1,109 @@
+package br.com.yomu.gamificacaoDaLeitura.model;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a inserção com ids aleatórios (v4, o GenerationType.UUID de antes)
+ * e com ids {@link UuidV7}: vazão e tamanho do índice da chave primária, numa
+ * tabela com o formato de progressos, num schema temporário. Só executa com
+ * -Dyomu.teste.postgres.url=jdbc:postgresql://... (usuário e senha em
+ * yomu.teste.postgres.usuario e yomu.teste.postgres.senha; quantidade de
+ * linhas em yomu.teste.benchmark.linhas).
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "yomu.teste.postgres.url", matches = ".+")
+class InsercaoUuidBenchmarkTest {
+
+	private static final int LINHAS = Integer.getInteger("yomu.teste.benchmark.linhas", 200_000);
+	private static final int LOTE = 1_000;
+
+	private final String schema = "yomu_teste_" + UUID.randomUUID().toString().replace("-", "");
+	private SingleConnectionDataSource dataSource;
+	private JdbcTemplate jdbc;
+
+	private record Resultado(String estrategia, Duration duracao, long bytesIndice) {
+		double linhasPorSegundo() {
+			return LINHAS * 1000.0 / Math.max(1, duracao.toMillis());
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		dataSource = new SingleConnectionDataSource(
+				System.getProperty("yomu.teste.postgres.url"),
+				System.getProperty("yomu.teste.postgres.usuario", "postgres"),
+				System.getProperty("yomu.teste.postgres.senha", ""),
+				true);
+		jdbc = new JdbcTemplate(dataSource);
+		jdbc.execute("CREATE SCHEMA " + schema);
+		jdbc.execute("SET search_path TO " + schema);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbc.execute("DROP SCHEMA " + schema + " CASCADE");
+		dataSource.destroy();
+	}
+
+	@Test
+	void uuidV7GeraIndiceMenorQueAleatorio() {
+		// Aquece a conexão e o plano antes de medir
+		inserir("aquecimento", UUID::randomUUID);
+
+		Resultado aleatorio = inserir("progressos_v4", UUID::randomUUID);
+		Resultado v7 = inserir("progressos_v7", GeradorUuidV7::gerar);
+
+		for (Resultado resultado : List.of(aleatorio, v7)) {
+			log.info("{}: {} linhas em {} ms ({} linhas/s), índice da PK {} bytes",
+					resultado.estrategia(), LINHAS, resultado.duracao().toMillis(),
+					Math.round(resultado.linhasPorSegundo()), resultado.bytesIndice());
+		}
+		// Inserções em ordem enchem as folhas (divisão 90/10 na página mais à direita); aleatórias deixam ~70% ocupadas
+		assertThat(v7.bytesIndice()).isLessThan(aleatorio.bytesIndice());
+	}
+
+	@Test
+	void expressaoSqlGeraUuidV7() {
+		List<UUID> ids = jdbc.queryForList("SELECT " + GeradorUuidV7.SQL + " FROM generate_series(1, 1000)", UUID.class);
+
+		Instant agora = Instant.now();
+		assertThat(ids).doesNotHaveDuplicates().allSatisfy(id -> {
+			assertThat(id.version()).isEqualTo(7);
+			assertThat(id.variant()).isEqualTo(2);
+			assertThat(Duration.between(GeradorUuidV7.instante(id), agora).abs()).isLessThan(Duration.ofMinutes(1));
+		});
+	}
+
+	private Resultado inserir(String tabela, Supplier<UUID> ids) {
+		jdbc.execute("CREATE TABLE " + tabela + " (id uuid PRIMARY KEY, usuario_id uuid NOT NULL, " +
+				"quantidade integer NOT NULL, xp_gerado bigint NOT NULL, created_at timestamp NOT NULL)");
+		UUID usuarioId = UUID.randomUUID();
+		long inicio = System.nanoTime();
+		for (int feitas = 0; feitas < LINHAS; feitas += LOTE) {
+			List<Object[]> lote = new ArrayList<>(LOTE);
+			for (int i = 0; i < LOTE; i++) {
+				lote.add(new Object[]{ids.get(), usuarioId, 5, 50L, LocalDateTime.now()});
+			}
+			jdbc.batchUpdate("INSERT INTO " + tabela + " VALUES (?, ?, ?, ?, ?)", lote);
+		}
+		Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+		Long bytes = jdbc.queryForObject("SELECT pg_relation_size(CAST(? AS regclass))", Long.class, tabela + "_pkey");
+		return new Resultado(tabela, duracao, bytes);
+	}
+}
@@ -0,0 +1,111 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpDescarregado;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AcumuladorXpServiceTest {
+
+	private final ProgressoRepository progressoRepository = mock(ProgressoRepository.class);
+	private final NotificacaoService notificacaoService = mock(NotificacaoService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AcumuladorXpService acumulador = new AcumuladorXpService(progressoRepository, notificacaoService,
+			mock(CacheInvalidacaoService.class), mock(JdbcTemplate.class), mock(PlatformTransactionManager.class), meterRegistry, true);
+
+	@Test
+	void muitosProgressosDoMesmoUsuarioViramUmUnicoUpdate() throws Exception {
+		UUID leitor = UUID.randomUUID();
+		UUID outro = UUID.randomUUID();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch fim = new CountDownLatch(8);
+		for (int t = 0; t < 8; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 1_000; i++) {
+					acumulador.acumular(leitor, 10);
+				}
+				fim.countDown();
+			});
+		}
+		acumulador.acumular(outro, 50);
+		assertThat(fim.await(10, TimeUnit.SECONDS)).isTrue();
+		executor.shutdown();
+		assertThat(meterRegistry.get("xp.write-behind.pendente").gauge().value()).isEqualTo(80_050.0);
+
+		when(progressoRepository.aplicarXpPendente(any())).thenReturn(List.of(
+				descarregado(leitor, 80_500, 81, 80_000),
+				descarregado(outro, 950, 1, 50)));
+		acumulador.descarregar();
+
+		verify(progressoRepository, times(1)).aplicarXpPendente(argThat((Collection<UUID> ids) ->
+				ids.size() == 2 && ids.contains(leitor) && ids.contains(outro)));
+		verify(notificacaoService).notificarNivel(leitor, 81, 80_500);
+		verify(notificacaoService, never()).notificarNivel(argThat(outro::equals), anyInt(), anyLong());
+		assertThat(meterRegistry.get("xp.write-behind.pendente").gauge().value()).isZero();
+
+		// Nada pendente: nenhuma ida ao banco
+		acumulador.descarregar();
+		verify(progressoRepository, times(1)).aplicarXpPendente(any());
+	}
+
+	@Test
+	void falhaNoDescarregamentoDevolveOsUsuariosParaAProximaRodada() {
+		UUID leitor = UUID.randomUUID();
+		acumulador.acumular(leitor, 10);
+		when(progressoRepository.aplicarXpPendente(any()))
+				.thenThrow(new IllegalStateException("conexão perdida"))
+				.thenReturn(List.of(descarregado(leitor, 1_005, 2, 10)));
+
+		acumulador.descarregar();
+		assertThat(meterRegistry.get("xp.write-behind.pendente").gauge().value()).isEqualTo(10.0);
+
+		acumulador.descarregar();
+		verify(progressoRepository, times(2)).aplicarXpPendente(any());
+		verify(notificacaoService).notificarNivel(leitor, 2, 1_005);
+	}
+
+	private static XpDescarregado descarregado(UUID usuarioId, long xpTotal, int nivel, long delta) {
+		return new XpDescarregado() {
+			@Override
+			public UUID getUsuarioId() {
+				return usuarioId;
+			}
+
+			@Override
+			public Long getXpTotal() {
+				return xpTotal;
+			}
+
+			@Override
+			public Integer getNivelAtual() {
+				return nivel;
+			}
+
+			@Override
+			public Long getDelta() {
+				return delta;
+			}
+		};
+	}
+}
@@ -0,0 +1,53 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArquivoTemporadaTest {
+
+	@Test
+	void codificacaoPreservaOrdemEmpatesEBuscaPorUsuario() {
+		Random random = new Random(13);
+		List<ArquivoTemporada.Linha> linhas = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			// Poucos valores distintos, para gerar empates
+			linhas.add(new ArquivoTemporada.Linha(new UUID(random.nextLong(), random.nextLong()), 10L * random.nextInt(500)));
+		}
+
+		byte[] dados = ArquivoTemporada.codificar(linhas);
+		ArquivoTemporada arquivo = ArquivoTemporada.decodificar(dados);
+
+		assertThat(arquivo.tamanho()).isEqualTo(linhas.size());
+		// Bem menor que 32 bytes por linha (dois longs de UUID, XP e posição)
+		assertThat(dados.length).isLessThan(linhas.size() * 20);
+
+		List<ArquivoTemporada.Posicao> todas = arquivo.faixa(0, arquivo.tamanho());
+		for (int i = 1; i < todas.size(); i++) {
+			ArquivoTemporada.Posicao anterior = todas.get(i - 1);
+			ArquivoTemporada.Posicao atual = todas.get(i);
+			assertThat(atual.xp()).isLessThanOrEqualTo(anterior.xp());
+			// Mesma regra de RANK(): empate repete a posição, depois pula
+			assertThat(atual.posicao()).isEqualTo(atual.xp() == anterior.xp() ? anterior.posicao() : i + 1);
+		}
+
+		for (ArquivoTemporada.Linha linha : linhas) {
+			ArquivoTemporada.Posicao posicao = arquivo.buscar(linha.usuarioId());
+			assertThat(posicao).isNotNull();
+			assertThat(posicao.xp()).isEqualTo(linha.xp());
+		}
+		assertThat(arquivo.buscar(UUID.randomUUID())).isNull();
+	}
+
+	@Test
+	void temporadaVaziaEhValida() {
+		ArquivoTemporada arquivo = ArquivoTemporada.decodificar(ArquivoTemporada.codificar(List.of()));
+		assertThat(arquivo.tamanho()).isZero();
+		assertThat(arquivo.faixa(0, 10)).isEmpty();
+	}
+}
@@ -0,0 +1,75 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalendarioRankingTest {
+
+	private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+	@Test
+	void janelasAlinhadasAoCalendario() {
+		// Sexta, 1º de janeiro: a semana ISO começou no ano anterior
+		CalendarioRanking calendario = new CalendarioRanking(
+				Clock.fixed(Instant.parse("2027-01-01T13:00:00Z"), SAO_PAULO));
+
+		CalendarioRanking.Janela semana = calendario.janela(PeriodoRanking.SEMANAL);
+		assertThat(semana.inicio()).isEqualTo(LocalDate.of(2026, 12, 28));
+		assertThat(semana.fim()).isEqualTo(LocalDate.of(2027, 1, 3));
+		assertThat(semana.chave()).isEqualTo("SEMANAL:2026-12-28");
+
+		assertThat(calendario.janela(PeriodoRanking.MENSAL).fim()).isEqualTo(LocalDate.of(2027, 1, 31));
+		assertThat(calendario.janela(PeriodoRanking.ANUAL).inicio()).isEqualTo(LocalDate.of(2027, 1, 1));
+		assertThat(calendario.janela(PeriodoRanking.TOTAL).chave()).isEqualTo("TOTAL");
+		assertThat(ConstrutorPlacares.primeiroDia(calendario.hoje())).isEqualTo(LocalDate.of(2026, 12, 28));
+	}
+
+	@Test
+	void viradaNoFusoConfigurado() {
+		// Domingo 23h30 em São Paulo, já segunda em UTC
+		CalendarioRanking calendario = new CalendarioRanking(
+				Clock.fixed(Instant.parse("2026-10-19T02:30:00Z"), SAO_PAULO));
+
+		CalendarioRanking.Janela semana = calendario.janela(PeriodoRanking.SEMANAL);
+		assertThat(semana.inicio()).isEqualTo(LocalDate.of(2026, 10, 12));
+		assertThat(semana.terminaEm()).isEqualTo(Instant.parse("2026-10-19T03:00:00Z"));
+		assertThat(semana.contem(Instant.parse("2026-10-12T02:59:59Z"))).isFalse();
+		assertThat(semana.contem(Instant.parse("2026-10-12T03:00:00Z"))).isTrue();
+	}
+
+	@Test
+	void janelaRecalculadaDepoisDaVirada() {
+		Instant[] agora = {Instant.parse("2026-10-31T12:00:00Z")};
+		Clock relogio = new Clock() {
+			@Override
+			public ZoneId getZone() {
+				return SAO_PAULO;
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Instant instant() {
+				return agora[0];
+			}
+		};
+		CalendarioRanking calendario = new CalendarioRanking(relogio);
+		CalendarioRanking.Janela outubro = calendario.janela(PeriodoRanking.MENSAL);
+		assertThat(calendario.janela(PeriodoRanking.MENSAL)).isSameAs(outubro);
+
+		agora[0] = outubro.terminaEm();
+		CalendarioRanking.Janela novembro = calendario.janela(PeriodoRanking.MENSAL);
+		assertThat(novembro.inicio()).isEqualTo(LocalDate.of(2026, 11, 1));
+		assertThat(novembro.chave()).isNotEqualTo(outubro.chave());
+	}
+}
@@ -0,0 +1,131 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class ConstrutorPlacaresTest {
+
+	private static final int TOTAL_USUARIOS = 20_000;
+	private static final int DIAS_POR_USUARIO = 30;
+	private static final int REPETICOES = 3;
+
+	private record Linha(UUID usuarioId, LocalDate dia, long xp) {}
+
+	private final LocalDate hoje = LocalDate.of(2025, 6, 15);
+	private final List<UUID> usuarios = new ArrayList<>();
+	private final Map<UUID, Long> xpTotal = new HashMap<>();
+	private final List<Linha> linhas = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		Random random = new Random(42);
+		for (int i = 0; i < TOTAL_USUARIOS; i++) {
+			UUID usuarioId = new UUID(random.nextLong(), random.nextLong());
+			usuarios.add(usuarioId);
+			long total = 0;
+			for (int d = 0; d < DIAS_POR_USUARIO; d++) {
+				long xp = 10L * (1 + random.nextInt(20));
+				linhas.add(new Linha(usuarioId, hoje.minusDays(random.nextInt(400)), xp));
+				total += xp;
+			}
+			xpTotal.put(usuarioId, total);
+		}
+	}
+
+	@Test
+	void umaPassadaGeraOsMesmosPlacaresQueOLacoPorPeriodo() {
+		Map<PeriodoRanking, PlacarRanking> esperado = porPeriodo();
+		Map<PeriodoRanking, PlacarRanking> obtido = umaPassada();
+
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			PlacarRanking a = esperado.get(periodo);
+			PlacarRanking b = obtido.get(periodo);
+			assertThat(b.tamanho()).isEqualTo(TOTAL_USUARIOS);
+			assertThat(b.faixa(0, b.tamanho())).isEqualTo(a.faixa(0, a.tamanho()));
+		}
+	}
+
+	@Test
+	void benchmarkUmaPassadaContraLacoPorPeriodo() {
+		// Aquecimento do JIT
+		porPeriodo();
+		umaPassada();
+
+		long laco = Long.MAX_VALUE;
+		long passada = Long.MAX_VALUE;
+		for (int i = 0; i < REPETICOES; i++) {
+			long inicio = System.nanoTime();
+			porPeriodo();
+			laco = Math.min(laco, System.nanoTime() - inicio);
+
+			inicio = System.nanoTime();
+			umaPassada();
+			passada = Math.min(passada, System.nanoTime() - inicio);
+		}
+
+		log.info("{} usuários, {} linhas diárias: laço por período {} ms, uma passada {} ms",
+				TOTAL_USUARIOS, linhas.size(), laco / 1_000_000, passada / 1_000_000);
+		// Melhor de cada lado: uma leitura das linhas contra uma por período com janela
+		assertThat(passada).isLessThan(laco);
+	}
+
+	// Como era: uma agregação (GROUP BY) e um preenchimento de placar por período
+	private Map<PeriodoRanking, PlacarRanking> porPeriodo() {
+		Map<PeriodoRanking, PlacarRanking> placares = new EnumMap<>(PeriodoRanking.class);
+		PlacarRanking total = new PlacarRanking();
+		for (UUID usuarioId : usuarios) {
+			total.atualizar(usuarioId, xpTotal.get(usuarioId));
+		}
+		placares.put(PeriodoRanking.TOTAL, total);
+
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			if (!periodo.possuiJanela()) {
+				continue;
+			}
+			LocalDate inicio = periodo.inicioEm(hoje);
+			Map<UUID, Long> soma = new HashMap<>();
+			for (Linha linha : linhas) {
+				if (!linha.dia().isBefore(inicio)) {
+					soma.merge(linha.usuarioId(), linha.xp(), Long::sum);
+				}
+			}
+			PlacarRanking placar = new PlacarRanking();
+			soma.forEach(placar::atualizar);
+			for (UUID usuarioId : usuarios) {
+				if (!placar.contem(usuarioId)) {
+					placar.atualizar(usuarioId, 0L);
+				}
+			}
+			placares.put(periodo, placar);
+		}
+		return placares;
+	}
+
+	private Map<PeriodoRanking, PlacarRanking> umaPassada() {
+		ConstrutorPlacares construtor = new ConstrutorPlacares(hoje);
+		for (UUID usuarioId : usuarios) {
+			construtor.adicionarUsuario(usuarioId, xpTotal.get(usuarioId));
+		}
+		LocalDate primeiroDia = ConstrutorPlacares.primeiroDia(hoje);
+		for (Linha linha : linhas) {
+			if (!linha.dia().isBefore(primeiroDia)) {
+				construtor.acumular(linha.usuarioId(), linha.dia(), linha.xp());
+			}
+		}
+		return construtor.construir();
+	}
+}
@@ -0,0 +1,80 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistogramaXpTest {
+
+	@Test
+	void baldesSaoMonotonicosEComLarguraRelativaLimitada() {
+		int anterior = -1;
+		for (long xp = 0; xp < 200_000; xp++) {
+			int balde = HistogramaXp.balde(xp);
+			assertThat(balde).isBetween(anterior, anterior + 1);
+			anterior = balde;
+		}
+		assertThat(HistogramaXp.balde(Long.MAX_VALUE)).isEqualTo(HistogramaXp.TOTAL_BALDES - 1);
+
+		// Um balde nunca é mais largo que 1/16 do menor valor dele
+		Random random = new Random(3);
+		for (int i = 0; i < 10_000; i++) {
+			long xp = 32 + (random.nextLong() >>> (1 + random.nextInt(58)));
+			assertThat(HistogramaXp.balde(xp + xp / 16 + 1)).isNotEqualTo(HistogramaXp.balde(xp));
+		}
+	}
+
+	@Test
+	void posicaoRealFicaSempreDentroDaFaixaEstimada() {
+		Random random = new Random(5);
+		long[] xps = new long[50_000];
+		HistogramaXp histograma = new HistogramaXp();
+		for (int i = 0; i < xps.length; i++) {
+			// Distribuição de cauda longa, como o XP real
+			xps[i] = (long) Math.pow(10, random.nextDouble() * 6);
+			histograma.adicionar(xps[i]);
+		}
+		// Algumas movimentações, como registrarXp faria
+		for (int i = 0; i < 5_000; i++) {
+			int j = random.nextInt(xps.length);
+			long novo = xps[j] + random.nextInt(500);
+			histograma.mover(xps[j], novo);
+			xps[j] = novo;
+		}
+
+		long[] ordenado = xps.clone();
+		Arrays.sort(ordenado);
+		assertThat(histograma.total()).isEqualTo(xps.length);
+		for (int i = 0; i < 2_000; i++) {
+			long xp = xps[random.nextInt(xps.length)];
+			// Posição real (1-based) do primeiro com este XP e do último
+			long acima = xps.length - superior(ordenado, xp);
+			long empatados = superior(ordenado, xp) - inferior(ordenado, xp);
+
+			HistogramaXp.Estimativa estimativa = histograma.estimar(xp);
+			assertThat(estimativa.posicaoMinima()).isLessThanOrEqualTo(acima + 1);
+			assertThat(estimativa.posicaoMaxima()).isGreaterThanOrEqualTo(acima + empatados);
+			assertThat(estimativa.posicao()).isBetween(estimativa.posicaoMinima(), estimativa.posicaoMaxima());
+			assertThat(estimativa.percentil()).isBetween(0.0, 100.0);
+		}
+	}
+
+	private static int inferior(long[] ordenado, long valor) {
+		int i = Arrays.binarySearch(ordenado, valor);
+		while (i > 0 && ordenado[i - 1] == valor) {
+			i--;
+		}
+		return i;
+	}
+
+	private static int superior(long[] ordenado, long valor) {
+		int i = Arrays.binarySearch(ordenado, valor);
+		while (i < ordenado.length - 1 && ordenado[i + 1] == valor) {
+			i++;
+		}
+		return i + 1;
+	}
+}
@@ -0,0 +1,209 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoCreateDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Livro;
+import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
+import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoProgresso;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRegistro;
+import br.com.yomu.gamificacaoDaLeitura.repository.LivroRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Registra progressos do mesmo usuário em paralelo pelo ProgressoService,
+ * contra um Postgres embutido: o UPDATE ... RETURNING de
+ * UsuarioRepository.incrementarXp não pode perder XP nem repetir um total, e
+ * deve ser a única escrita em usuarios por registro.
+ * O initdb do Postgres se recusa a rodar como root, então o teste fica de
+ * fora nesse caso.
+ */
+@DisabledIfSystemProperty(named = "user.name", matches = "root")
+@SpringJUnitConfig(IncrementoXpConcorrenteTest.Configuracao.class)
+class IncrementoXpConcorrenteTest {
+
+	private static final int THREADS = 16;
+	private static final int REGISTROS_POR_THREAD = 25;
+	private static final int PAGINAS_POR_REGISTRO = 3;
+
+	@Autowired
+	private ProgressoService progressoService;
+
+	@Autowired
+	private UsuarioRepository usuarioRepository;
+
+	@Autowired
+	private LivroRepository livroRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void registrosParalelosNaoPerdemXp() throws Exception {
+		Usuario usuario = usuarioRepository.save(usuario());
+		Livro livro = livroRepository.save(livro(usuario));
+		// Conta as linhas de usuarios atualizadas; sequências não voltam atrás com a transação
+		jdbcTemplate.execute("CREATE SEQUENCE updates_usuarios");
+		jdbcTemplate.execute("CREATE FUNCTION contar_update() RETURNS trigger AS "
+				+ "$$ BEGIN PERFORM nextval('updates_usuarios'); RETURN NEW; END $$ LANGUAGE plpgsql");
+		jdbcTemplate.execute("CREATE TRIGGER contar_update BEFORE UPDATE ON usuarios "
+				+ "FOR EACH ROW EXECUTE FUNCTION contar_update()");
+		ProgressoCreateDTO dto = new ProgressoCreateDTO();
+		dto.setQuantidade(PAGINAS_POR_REGISTRO);
+		dto.setTipoProgresso(TipoProgresso.PAGINA);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		Set<Long> totaisVistos = ConcurrentHashMap.newKeySet();
+		List<Future<?>> tarefas = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				tarefas.add(executor.submit(() -> {
+					largada.await();
+					for (int i = 0; i < REGISTROS_POR_THREAD; i++) {
+						Progresso progresso = progressoService.registrar(usuario.getId(), livro.getId(), dto);
+						// O usuário devolvido já tem o total gravado por este registro
+						long xpTotal = progresso.getUsuario().getXpTotal();
+						totaisVistos.add(xpTotal);
+						assertThat(progresso.getUsuario().getNivelAtual()).isEqualTo(Usuario.calcularNivel(xpTotal));
+					}
+					return null;
+				}));
+			}
+			largada.countDown();
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long esperado = (long) THREADS * REGISTROS_POR_THREAD * PAGINAS_POR_REGISTRO * 10;
+		Map<String, Object> gravado = jdbcTemplate.queryForMap(
+				"SELECT xp_total, nivel_atual FROM usuarios WHERE id = ?", usuario.getId());
+		assertThat(((Number) gravado.get("xp_total")).longValue()).isEqualTo(esperado);
+		assertThat(((Number) gravado.get("nivel_atual")).intValue()).isEqualTo(Usuario.calcularNivel(esperado));
+		// Cada registro viu um total diferente: nenhum foi aplicado sobre um valor já lido por outro
+		assertThat(totaisVistos).hasSize(THREADS * REGISTROS_POR_THREAD);
+		// Só o UPDATE ... RETURNING: o usuário devolvido não é regravado pelo Hibernate no commit
+		assertThat(jdbcTemplate.queryForObject("SELECT last_value FROM updates_usuarios", Long.class))
+				.isEqualTo(THREADS * REGISTROS_POR_THREAD);
+	}
+
+	private static Usuario usuario() {
+		Usuario usuario = new Usuario();
+		usuario.setNomeUsuario("leitor");
+		usuario.setNome("Leitor");
+		usuario.setGenero("outro");
+		usuario.setEmail("leitor@email.com");
+		usuario.setSenha("senha");
+		usuario.setCodigoConvite("CONVITE1");
+		return usuario;
+	}
+
+	private static Livro livro(Usuario usuario) {
+		Livro livro = new Livro();
+		livro.setUsuario(usuario);
+		livro.setTitulo("Dom Casmurro");
+		livro.setAutor("Machado de Assis");
+		livro.setNumeroPaginas(256);
+		livro.setTipoRegistro(TipoRegistro.PAGINA);
+		return livro;
+	}
+
+	@Configuration
+	@EnableTransactionManagement(proxyTargetClass = true)
+	@EnableJpaRepositories(basePackageClasses = UsuarioRepository.class, includeFilters = @ComponentScan.Filter(
+			type = FilterType.ASSIGNABLE_TYPE,
+			classes = {UsuarioRepository.class, LivroRepository.class, ProgressoRepository.class}))
+	static class Configuracao {
+
+		@Bean(destroyMethod = "close")
+		EmbeddedPostgres postgres() throws IOException {
+			return EmbeddedPostgres.start();
+		}
+
+		@Bean
+		DataSource dataSource(EmbeddedPostgres postgres) {
+			return postgres.getPostgresDatabase();
+		}
+
+		@Bean
+		JdbcTemplate jdbcTemplate(DataSource dataSource) {
+			return new JdbcTemplate(dataSource);
+		}
+
+		@Bean
+		LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			LocalContainerEntityManagerFactoryBean fabrica = new LocalContainerEntityManagerFactoryBean();
+			fabrica.setDataSource(dataSource);
+			fabrica.setPackagesToScan(Usuario.class.getPackageName());
+			fabrica.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+			// Mesmos nomes de colunas que o Spring Boot gera (xp_total, nivel_atual)
+			fabrica.setJpaPropertyMap(Map.of(
+					AvailableSettings.HBM2DDL_AUTO, "create",
+					AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName()));
+			return fabrica;
+		}
+
+		@Bean
+		PlatformTransactionManager transactionManager(LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory.getObject());
+		}
+
+		@Bean
+		UsuarioService usuarioService(UsuarioRepository usuarioRepository) {
+			return new UsuarioService(usuarioRepository, mock(RankingMemoriaService.class),
+					mock(RankingAmigosService.class));
+		}
+
+		@Bean
+		LivroService livroService(LivroRepository livroRepository, UsuarioService usuarioService) {
+			return new LivroService(livroRepository, usuarioService);
+		}
+
+		// Metas, consolidação diária e rankings ficam de fora: só o XP em usuarios importa aqui
+		@Bean
+		ProgressoService progressoService(ProgressoRepository progressoRepository, UsuarioService usuarioService,
+				LivroService livroService, ApplicationEventPublisher eventPublisher) {
+			return new ProgressoService(progressoRepository, usuarioService, livroService,
+					mock(RankingAsyncService.class), mock(NotificacaoService.class), mock(AcumuladorXpService.class),
+					eventPublisher);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlacarRankingTest {
+
+	private static final Comparator<PlacarRanking.Entrada> ORDEM = Comparator
+			.comparingLong(PlacarRanking.Entrada::xp).reversed()
+			.thenComparing(PlacarRanking.Entrada::usuarioId);
+
+	@Test
+	void operacoesAleatoriasMantemAOrdemEAsPosicoes() {
+		Random random = new Random(7);
+		List<UUID> usuarios = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			usuarios.add(new UUID(random.nextLong(), random.nextLong()));
+		}
+
+		PlacarRanking placar = new PlacarRanking();
+		Map<UUID, Long> esperado = new HashMap<>();
+		for (int i = 0; i < 20_000; i++) {
+			UUID usuarioId = usuarios.get(random.nextInt(usuarios.size()));
+			switch (random.nextInt(4)) {
+				case 0 -> {
+					placar.remover(usuarioId);
+					esperado.remove(usuarioId);
+				}
+				case 1 -> {
+					long delta = random.nextInt(50);
+					placar.somar(usuarioId, delta);
+					esperado.merge(usuarioId, delta, Long::sum);
+				}
+				default -> {
+					// Poucos valores distintos, para exercitar os empates
+					long xp = random.nextInt(20) * 10L;
+					placar.atualizar(usuarioId, xp);
+					esperado.put(usuarioId, xp);
+				}
+			}
+		}
+
+		List<PlacarRanking.Entrada> ordenado = ordenar(esperado);
+		assertThat(placar.tamanho()).isEqualTo(ordenado.size());
+		assertThat(placar.faixa(0, placar.tamanho())).isEqualTo(ordenado);
+		assertThat(placar.faixa(10, 25)).isEqualTo(ordenado.subList(10, 35));
+		for (int i = 0; i < ordenado.size(); i++) {
+			assertThat(placar.posicao(ordenado.get(i).usuarioId())).isEqualTo(i + 1);
+		}
+		for (UUID usuarioId : usuarios) {
+			assertThat(placar.contem(usuarioId)).isEqualTo(esperado.containsKey(usuarioId));
+		}
+	}
+
+	@Test
+	void construcaoEmLoteEquivaleAInsercoesUmaAUma() {
+		Random random = new Random(11);
+		IndiceUsuarios indice = new IndiceUsuarios();
+		long[] xp = new long[3_000];
+		Map<UUID, Long> esperado = new HashMap<>();
+		for (int i = 0; i < xp.length; i++) {
+			UUID usuarioId = new UUID(random.nextLong(), random.nextLong());
+			int no = indice.obterOuCriar(usuarioId);
+			xp[no] = random.nextInt(100) * 5L;
+			esperado.put(usuarioId, xp[no]);
+		}
+
+		PlacarRanking placar = PlacarRanking.construir(indice, xp, indice.tamanho());
+		assertThat(placar.faixa(0, placar.tamanho())).isEqualTo(ordenar(esperado));
+
+		// Continua funcionando com atualizações incrementais depois da construção
+		UUID novo = UUID.randomUUID();
+		placar.atualizar(novo, 1_000_000L);
+		assertThat(placar.posicao(novo)).isEqualTo(1);
+		assertThat(placar.tamanho()).isEqualTo(xp.length + 1);
+	}
+
+	private static List<PlacarRanking.Entrada> ordenar(Map<UUID, Long> xpPorUsuario) {
+		List<PlacarRanking.Entrada> entradas = new ArrayList<>();
+		xpPorUsuario.forEach((usuarioId, xp) -> entradas.add(new PlacarRanking.Entrada(usuarioId, xp)));
+		entradas.sort(ORDEM);
+		return entradas;
+	}
+}
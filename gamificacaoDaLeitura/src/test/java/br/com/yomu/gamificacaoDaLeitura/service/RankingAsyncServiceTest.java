@@ -0,0 +1,124 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankingAsyncServiceTest {
+
+	private final RankingService rankingService = mock(RankingService.class);
+	private final RankingMemoriaService memoria = mock(RankingMemoriaService.class);
+	private final RankingAmigosService amigos = mock(RankingAmigosService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final CountDownLatch recalculoIniciado = new CountDownLatch(1);
+	private final CountDownLatch liberarRecalculo = new CountDownLatch(1);
+
+	private ThreadPoolTaskExecutor executor;
+	private RankingAtualizacaoService atualizacao;
+
+	private void iniciar(int threads, int fila) {
+		iniciar(threads, fila, 0);
+	}
+
+	private void iniciar(int threads, int fila, long intervaloMinimoMs) {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(fila);
+		executor.initialize();
+		atualizacao = new RankingAtualizacaoService(rankingService, mock(RankingLiderancaService.class), executor, meterRegistry,
+				intervaloMinimoMs);
+
+		when(rankingService.calcularERankingGeral(any())).thenAnswer(invocacao -> {
+			recalculoIniciado.countDown();
+			liberarRecalculo.await(10, TimeUnit.SECONDS);
+			return null;
+		});
+	}
+
+	@AfterEach
+	void encerrar() {
+		liberarRecalculo.countDown();
+		atualizacao.encerrar();
+		executor.shutdown();
+	}
+
+	@Test
+	void listenerDeProgressoRetornaAntesDoRecalculoDosRankings() throws Exception {
+		iniciar(2, 100);
+		RankingLiderancaService lideranca = mock(RankingLiderancaService.class);
+		when(lideranca.souLider()).thenReturn(true);
+		// Sem URL de LISTEN o barramento só aplica localmente, como numa instância única
+		RankingAsyncService listener = new RankingAsyncService(memoria, amigos, atualizacao, lideranca,
+			new CacheInvalidacaoService(mock(JdbcTemplate.class), "", "", "", 30_000));
+		listener.registrar();
+		UUID usuarioId = UUID.randomUUID();
+
+		long inicio = System.nanoTime();
+		listener.onProgressoRegistrado(new ProgressoRegistradoEvent(
+			usuarioId, 50L, 5, 0, 1, LocalDateTime.now()));
+		long duracaoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+		// O recálculo começou em outra thread e continua bloqueado
+		assertThat(recalculoIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(liberarRecalculo.getCount()).isEqualTo(1);
+		assertThat(duracaoMs).isLessThan(1_000);
+		verify(memoria).recarregarUsuario(usuarioId);
+		verify(amigos).registrarXp(usuarioId);
+
+		liberarRecalculo.countDown();
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			verify(rankingService, timeout(5_000)).calcularERankingGeral(periodo);
+		}
+	}
+
+	@Test
+	void filaCheiaDescartaTentativaMasMantemAChavePendente() throws Exception {
+		iniciar(1, 1);
+
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			atualizacao.solicitarGeral(periodo);
+		}
+		assertThat(recalculoIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Uma em execução, uma na fila, as outras recusadas; pedidos repetidos são absorvidos
+		atualizacao.solicitarGeral(PeriodoRanking.TOTAL);
+		Thread.sleep(200);
+		assertThat(meterRegistry.counter("ranking.atualizacao.descartes").count()).isGreaterThanOrEqualTo(2);
+
+		liberarRecalculo.countDown();
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			verify(rankingService, timeout(5_000)).calcularERankingGeral(periodo);
+		}
+	}
+
+	@Test
+	void encerramentoEnviaOsRecalculosQueEsperavamOIntervaloMinimo() {
+		iniciar(1, 10, 60_000);
+		liberarRecalculo.countDown();
+
+		atualizacao.solicitarGeral(PeriodoRanking.SEMANAL);
+		verify(rankingService, timeout(5_000)).calcularERankingGeral(PeriodoRanking.SEMANAL);
+		// Só poderia rodar daqui a um minuto
+		atualizacao.solicitarGeral(PeriodoRanking.SEMANAL);
+
+		atualizacao.encerrar();
+		verify(rankingService, timeout(5_000).times(2)).calcularERankingGeral(PeriodoRanking.SEMANAL);
+	}
+}
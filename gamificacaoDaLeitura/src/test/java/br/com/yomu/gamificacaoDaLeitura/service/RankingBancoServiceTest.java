@@ -0,0 +1,39 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankingBancoServiceTest {
+
+	private final RankingRepository rankingRepository = mock(RankingRepository.class);
+	private final RankingLiderancaService lideranca = mock(RankingLiderancaService.class);
+
+	@Test
+	void totalLidoUmaVezPorRefreshDaView() {
+		when(lideranca.souLider()).thenReturn(true);
+		when(rankingRepository.ultimaOrdem(PeriodoRanking.SEMANAL.name())).thenReturn(42L, 43L);
+		RankingBancoService banco = new RankingBancoService(mock(JdbcTemplate.class), rankingRepository, lideranca,
+				new CalendarioRanking(Clock.systemDefaultZone()), mock(TransactionTemplate.class));
+
+		// Várias páginas entre dois refreshes: nenhuma contagem a mais
+		for (int pagina = 0; pagina < 10; pagina++) {
+			assertThat(banco.total(PeriodoRanking.SEMANAL)).isEqualTo(42);
+		}
+		verify(rankingRepository, times(1)).ultimaOrdem(PeriodoRanking.SEMANAL.name());
+
+		banco.atualizarView();
+		assertThat(banco.total(PeriodoRanking.SEMANAL)).isEqualTo(43);
+		verify(rankingRepository, times(2)).ultimaOrdem(PeriodoRanking.SEMANAL.name());
+	}
+}
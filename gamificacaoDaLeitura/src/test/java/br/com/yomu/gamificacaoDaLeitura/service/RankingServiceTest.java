@@ -0,0 +1,287 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.RankingItemDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Amizade;
+import br.com.yomu.gamificacaoDaLeitura.model.Ranking;
+import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.StatusAmizade;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.AmizadeRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoDiarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingEntradaRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.RankingRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.UsuarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.XpDiario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankingServiceTest {
+
+	private static final int TOTAL_USUARIOS = 2_000;
+
+	private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+	private final ProgressoDiarioRepository progressoDiarioRepository = mock(ProgressoDiarioRepository.class);
+	private final AmizadeRepository amizadeRepository = mock(AmizadeRepository.class);
+	private final RankingRepository rankingRepository = mock(RankingRepository.class);
+	private final CalendarioRanking calendario = new CalendarioRanking(Clock.systemDefaultZone());
+
+	private final List<Usuario> usuarios = new ArrayList<>();
+	private final List<XpDiario> xpDiario = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < TOTAL_USUARIOS; i++) {
+			Usuario usuario = new Usuario();
+			usuario.setId(UUID.randomUUID());
+			usuario.setNomeUsuario("usuario_" + i);
+			usuario.setXpTotal((long) i * 10);
+			usuarios.add(usuario);
+			xpDiario.add(xp(usuario.getId(), i));
+		}
+		when(usuarioRepository.streamParaRanking()).thenAnswer(invocation -> usuarios.stream().map(RankingServiceTest::projecao));
+		when(progressoDiarioRepository.streamDesde(any())).thenAnswer(invocation -> xpDiario.stream());
+		when(rankingRepository.findByTipoRankingAndPeriodoRanking(any(), any())).thenReturn(Optional.empty());
+		when(rankingRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	void reconstrucaoLeAConsolidacaoDiariaUmaUnicaVez() {
+		RankingMemoriaService memoria = new RankingMemoriaService(usuarioRepository, progressoDiarioRepository,
+				calendario, mock(ApplicationEventPublisher.class));
+
+		memoria.reconstruir();
+
+		int consultas = mockingDetails(progressoDiarioRepository).getInvocations().size();
+		verify(usuarioRepository, times(1)).streamParaRanking();
+
+		// Antes: 3 períodos com janela x N usuários consultas; depois, uma por período; agora uma só
+		assertThat(consultas).isEqualTo(1);
+		assertThat(memoria.total(PeriodoRanking.SEMANAL)).isEqualTo(TOTAL_USUARIOS);
+		assertThat(memoria.topo(PeriodoRanking.SEMANAL, 0, 1).get(0).getXp()).isEqualTo(TOTAL_USUARIOS - 1L);
+	}
+
+	@Test
+	void releituraDoUsuarioNaoSomaXpRepetido() {
+		RankingMemoriaService memoria = memoriaComReleitura();
+		memoria.reconstruir();
+		Usuario usuario = usuarios.get(0);
+		usuario.setXpTotal(500L);
+		xpDiario.add(xp(usuario.getId(), 100));
+
+		// A mesma notificação entregue duas vezes
+		memoria.recarregarUsuario(usuario.getId());
+		memoria.recarregarUsuario(usuario.getId());
+
+		assertThat(memoria.xp(PeriodoRanking.TOTAL, usuario.getId())).isEqualTo(500);
+		assertThat(memoria.xp(PeriodoRanking.SEMANAL, usuario.getId())).isEqualTo(100);
+		assertThat(memoria.estimar(PeriodoRanking.TOTAL, usuario.getId())).isPresent();
+	}
+
+	@Test
+	void xpGravadoDuranteAReconstrucaoNaoSePerde() {
+		RankingMemoriaService memoria = memoriaComReleitura();
+		memoria.reconstruir();
+		Usuario usuario = usuarios.get(1);
+		when(usuarioRepository.streamParaRanking()).thenAnswer(invocation -> {
+			// A reconstrução leu usuarios antes do commit; a notificação chega durante a leitura
+			List<UsuarioRanking> lidos = usuarios.stream().map(RankingServiceTest::projecao).toList();
+			usuario.setXpTotal(1_000L);
+			memoria.recarregarUsuario(usuario.getId());
+			return lidos.stream().map(lido -> lido.getId().equals(usuario.getId()) ? projecao(copia(usuario, 10L)) : lido);
+		});
+
+		memoria.reconstruir();
+
+		assertThat(memoria.xp(PeriodoRanking.TOTAL, usuario.getId())).isEqualTo(1_000);
+	}
+
+	@Test
+	void rankingDeAmigosServidoDoPlacarMaterializado() {
+		UUID usuarioId = usuarios.get(0).getId();
+		List<Amizade> amizades = new ArrayList<>();
+		for (Usuario amigo : usuarios.subList(1, usuarios.size())) {
+			Amizade amizade = new Amizade();
+			amizade.setUsuarioId1(usuarios.get(0));
+			amizade.setUsuarioId2(amigo);
+			amizade.setStatus(StatusAmizade.ACEITA);
+			amizades.add(amizade);
+		}
+		when(amizadeRepository.findAmizadesByUsuarioAndStatus(usuarioId, StatusAmizade.ACEITA)).thenReturn(amizades);
+
+		RankingMemoriaService memoria = new RankingMemoriaService(usuarioRepository, progressoDiarioRepository,
+				calendario, mock(ApplicationEventPublisher.class));
+		memoria.reconstruir();
+		int consultasReconstrucao = mockingDetails(progressoDiarioRepository).getInvocations().size();
+
+		ApplicationEventPublisher eventos = mock(ApplicationEventPublisher.class);
+		RankingService rankingService = rankingService(memoria, eventos);
+		// Idade não pede recálculo: o XP dos amigos já chega ao placar a cada progresso
+		ReflectionTestUtils.setField(rankingService, "frescorMaximoMs", 0L);
+
+		Map<String, Object> primeira = rankingService.obterRankingAmigos(usuarioId, PeriodoRanking.SEMANAL);
+		Map<String, Object> segunda = rankingService.obterRankingAmigos(usuarioId, PeriodoRanking.SEMANAL);
+
+		// Nenhuma consulta de progresso e nenhuma escrita: o grafo é lido uma vez e o placar fica em cache
+		assertThat(mockingDetails(progressoDiarioRepository).getInvocations()).hasSize(consultasReconstrucao);
+		verify(amizadeRepository, times(1)).findAmizadesByUsuarioAndStatus(usuarioId, StatusAmizade.ACEITA);
+		verify(rankingRepository, never()).save(any());
+		verify(eventos, never()).publishEvent(any(Object.class));
+		assertThat(primeira.get("total_usuarios")).isEqualTo(TOTAL_USUARIOS);
+		assertThat(segunda.get("ranking")).isEqualTo(primeira.get("ranking"));
+	}
+
+	@Test
+	void rankingsDeAmigosLimitadosEInvalidadosSoAposOCommit() {
+		Usuario leitor = usuarios.get(0);
+		Usuario amigo = usuarios.get(1);
+		Amizade amizade = new Amizade();
+		amizade.setUsuarioId1(leitor);
+		amizade.setUsuarioId2(amigo);
+		amizade.setStatus(StatusAmizade.ACEITA);
+		when(amizadeRepository.findAmizadesByUsuarioAndStatus(any(), any())).thenReturn(List.of(amizade));
+
+		RankingMemoriaService memoria = new RankingMemoriaService(usuarioRepository, progressoDiarioRepository,
+				calendario, mock(ApplicationEventPublisher.class));
+		memoria.reconstruir();
+		RankingAmigosService amigos = new RankingAmigosService(amizadeRepository, memoria, 2);
+
+		amigos.obter(leitor.getId(), PeriodoRanking.SEMANAL);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			amigos.invalidar(leitor.getId());
+			// Antes do commit o grafo antigo ainda é o que o banco devolve
+			assertThat(amigos.obter(leitor.getId(), PeriodoRanking.SEMANAL).desatualizado()).isFalse();
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertThat(amigos.obter(leitor.getId(), PeriodoRanking.SEMANAL).desatualizado()).isTrue();
+
+		// Só os 2 placares lidos mais recentemente ficam materializados
+		amigos.obter(leitor.getId(), PeriodoRanking.MENSAL);
+		amigos.obter(amigo.getId(), PeriodoRanking.SEMANAL);
+		amigos.obter(leitor.getId(), PeriodoRanking.SEMANAL);
+		verify(amizadeRepository, times(3)).findAmizadesByUsuarioAndStatus(leitor.getId(), StatusAmizade.ACEITA);
+		verify(amizadeRepository, times(1)).findAmizadesByUsuarioAndStatus(amigo.getId(), StatusAmizade.ACEITA);
+
+		// O usuário excluído sai dos placares dos amigos
+		amigos.remover(leitor.getId());
+		assertThat(amigos.obter(amigo.getId(), PeriodoRanking.SEMANAL).itens())
+				.extracting(RankingItemDTO::getUsuarioId).containsExactly(amigo.getId());
+	}
+
+	@Test
+	void rankingNuncaCalculadoTemDadosEmJsonValido() throws Exception {
+		RankingMemoriaService memoria = new RankingMemoriaService(usuarioRepository, progressoDiarioRepository,
+				calendario, mock(ApplicationEventPublisher.class));
+		RankingService rankingService = rankingService(memoria, mock(ApplicationEventPublisher.class));
+
+		Ranking ranking = rankingService.obterRanking(TipoRanking.GERAL, PeriodoRanking.SEMANAL);
+
+		Map<?, ?> dados = new ObjectMapper().readValue(ranking.getDados(), Map.class);
+		assertThat(dados.get("total_usuarios")).isEqualTo(0);
+		assertThat(dados.get("versao")).isEqualTo(0);
+		assertThat(dados.get("periodo")).isEqualTo("SEMANAL");
+		assertThat(dados.get("inicio_periodo")).isEqualTo(calendario.janela(PeriodoRanking.SEMANAL).inicio().toString());
+	}
+
+	private RankingService rankingService(RankingMemoriaService memoria, ApplicationEventPublisher eventos) {
+		RankingSnapshotService snapshots = new RankingSnapshotService(rankingRepository, mock(RankingEntradaRepository.class),
+				mock(JdbcTemplate.class), mock(ApplicationEventPublisher.class), new ObjectMapper());
+		return new RankingService(rankingRepository, memoria, memoria,
+				new RankingAmigosService(amizadeRepository, memoria, 100), new RankingRespostaCache(snapshots, new ObjectMapper(), mock(CacheInvalidacaoService.class)),
+				snapshots, calendario, new ObjectMapper(), eventos);
+	}
+
+	private RankingMemoriaService memoriaComReleitura() {
+		when(usuarioRepository.buscarParaRanking(any())).thenAnswer(invocation -> usuarios.stream()
+				.filter(usuario -> usuario.getId().equals(invocation.getArgument(0)))
+				.findFirst().map(RankingServiceTest::projecao));
+		when(progressoDiarioRepository.buscarDoUsuarioDesde(any(), any())).thenAnswer(invocation -> xpDiario.stream()
+				.filter(linha -> linha.getUsuarioId().equals(invocation.getArgument(0)))
+				.toList());
+		return new RankingMemoriaService(usuarioRepository, progressoDiarioRepository, calendario,
+				mock(ApplicationEventPublisher.class));
+	}
+
+	private static Usuario copia(Usuario usuario, long xpTotal) {
+		Usuario copia = new Usuario();
+		copia.setId(usuario.getId());
+		copia.setNomeUsuario(usuario.getNomeUsuario());
+		copia.setXpTotal(xpTotal);
+		return copia;
+	}
+
+	private static UsuarioRanking projecao(Usuario usuario) {
+		return new UsuarioRanking() {
+			@Override
+			public UUID getId() {
+				return usuario.getId();
+			}
+
+			@Override
+			public String getNomeUsuario() {
+				return usuario.getNomeUsuario();
+			}
+
+			@Override
+			public String getFotoPerfil() {
+				return usuario.getFotoPerfil();
+			}
+
+			@Override
+			public Integer getNivelAtual() {
+				return usuario.getNivelAtual();
+			}
+
+			@Override
+			public Long getXpTotal() {
+				return usuario.getXpTotal();
+			}
+		};
+	}
+
+	private XpDiario xp(UUID usuarioId, long xp) {
+		return new XpDiario() {
+			@Override
+			public UUID getUsuarioId() {
+				return usuarioId;
+			}
+
+			@Override
+			public LocalDate getDia() {
+				return calendario.hoje();
+			}
+
+			@Override
+			public Long getXp() {
+				return xp;
+			}
+		};
+	}
+}
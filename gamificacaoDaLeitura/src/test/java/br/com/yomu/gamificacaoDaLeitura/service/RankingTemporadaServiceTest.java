@@ -0,0 +1,74 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.model.TemporadaRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoDiarioRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.TemporadaRankingRepository;
+import br.com.yomu.gamificacaoDaLeitura.repository.TemporadaResumo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RankingTemporadaServiceTest {
+
+	private final TemporadaRankingRepository temporadaRepository = mock(TemporadaRankingRepository.class);
+	private final ProgressoDiarioRepository progressoDiarioRepository = mock(ProgressoDiarioRepository.class);
+	private final RankingLiderancaService lideranca = mock(RankingLiderancaService.class);
+	// Quarta, 21 de outubro de 2026: a semana atual começou na segunda, dia 19
+	private final CalendarioRanking calendario = new CalendarioRanking(
+			Clock.fixed(Instant.parse("2026-10-21T15:00:00Z"), ZoneId.of("America/Sao_Paulo")));
+
+	private RankingTemporadaService service;
+
+	@BeforeEach
+	void setUp() {
+		when(lideranca.souLider()).thenReturn(true);
+		when(temporadaRepository.listarResumos(any(), any())).thenReturn(List.of());
+		when(progressoDiarioRepository.streamSomaEntre(any(), any())).thenAnswer(invocacao -> Stream.empty());
+		service = new RankingTemporadaService(temporadaRepository, progressoDiarioRepository,
+				mock(RankingMemoriaService.class), lideranca, calendario, mock(PlatformTransactionManager.class), 4);
+	}
+
+	@Test
+	void arquivaTodasAsTemporadasEncerradasDesdeAUltimaArquivada() {
+		// Última semana arquivada: 21 a 27 de setembro; as três seguintes encerraram sem arquivamento
+		TemporadaResumo ultima = mock(TemporadaResumo.class);
+		when(ultima.getFim()).thenReturn(LocalDate.of(2026, 9, 27));
+		when(temporadaRepository.listarResumos(PeriodoRanking.SEMANAL, PageRequest.of(0, 1))).thenReturn(List.of(ultima));
+
+		service.arquivarEncerradas();
+
+		ArgumentCaptor<TemporadaRanking> gravadas = ArgumentCaptor.forClass(TemporadaRanking.class);
+		verify(temporadaRepository, times(5)).saveAndFlush(gravadas.capture());
+		assertThat(gravadas.getAllValues())
+				.extracting(temporada -> temporada.getPeriodoRanking() + ":" + temporada.getInicio())
+				.containsExactly(
+						"SEMANAL:2026-09-28", "SEMANAL:2026-10-05", "SEMANAL:2026-10-12",
+						// Sem nenhuma arquivada, só a anterior
+						"MENSAL:2026-09-01", "ANUAL:2025-01-01");
+	}
+
+	@Test
+	void historicoNaoLeMaisTemporadasDoQueCabemNoCache() {
+		service.historicoDoUsuario(UUID.randomUUID(), PeriodoRanking.SEMANAL, 100);
+
+		verify(temporadaRepository).listarResumos(PeriodoRanking.SEMANAL, PageRequest.of(0, 4));
+	}
+}
@@ -0,0 +1,179 @@
+package br.com.yomu.gamificacaoDaLeitura.service;
+
+import br.com.yomu.gamificacaoDaLeitura.dto.ProgressoCreateDTO;
+import br.com.yomu.gamificacaoDaLeitura.model.Livro;
+import br.com.yomu.gamificacaoDaLeitura.model.Progresso;
+import br.com.yomu.gamificacaoDaLeitura.model.Usuario;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.PeriodoRanking;
+import br.com.yomu.gamificacaoDaLeitura.model.enums.TipoProgresso;
+import br.com.yomu.gamificacaoDaLeitura.repository.ProgressoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// POST de progresso de ponta a ponta: transação, evento após o commit e recálculo no executor
+@SpringJUnitConfig(RegistroProgressoRankingTest.Configuracao.class)
+class RegistroProgressoRankingTest {
+
+	private static final CountDownLatch recalculoIniciado = new CountDownLatch(1);
+	private static final CountDownLatch liberarRecalculo = new CountDownLatch(1);
+
+	@Autowired
+	private ProgressoService progressoService;
+
+	@Autowired
+	private RankingService rankingService;
+
+	@Autowired
+	private RankingMemoriaService rankingMemoriaService;
+
+	@AfterEach
+	void liberar() {
+		liberarRecalculo.countDown();
+	}
+
+	@Test
+	void registrarRetornaAntesDoRecalculoDosRankings() throws Exception {
+		UUID usuarioId = UUID.randomUUID();
+		ProgressoCreateDTO dto = new ProgressoCreateDTO();
+		dto.setQuantidade(5);
+		dto.setTipoProgresso(TipoProgresso.PAGINA);
+
+		Progresso progresso = progressoService.registrar(usuarioId, UUID.randomUUID(), dto);
+
+		// O POST já tem a resposta; o recálculo começou em outra thread e continua bloqueado
+		assertThat(progresso.getXpGerado()).isEqualTo(50L);
+		assertThat(recalculoIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(liberarRecalculo.getCount()).isEqualTo(1);
+		verify(rankingMemoriaService).recarregarUsuario(usuarioId);
+
+		liberarRecalculo.countDown();
+		for (PeriodoRanking periodo : PeriodoRanking.values()) {
+			verify(rankingService, timeout(5_000)).calcularERankingGeral(periodo);
+		}
+	}
+
+	@Configuration
+	@EnableTransactionManagement(proxyTargetClass = true)
+	static class Configuracao {
+
+		@Bean
+		PlatformTransactionManager transactionManager() {
+			return new TransacaoSemBanco();
+		}
+
+		@Bean
+		ThreadPoolTaskExecutor rankingTaskExecutor() {
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setCorePoolSize(2);
+			executor.setMaxPoolSize(2);
+			executor.setQueueCapacity(100);
+			return executor;
+		}
+
+		@Bean
+		RankingService rankingService() {
+			RankingService rankingService = mock(RankingService.class);
+			when(rankingService.calcularERankingGeral(any())).thenAnswer(invocacao -> {
+				recalculoIniciado.countDown();
+				liberarRecalculo.await(10, TimeUnit.SECONDS);
+				return null;
+			});
+			return rankingService;
+		}
+
+		@Bean
+		RankingMemoriaService rankingMemoriaService() {
+			return mock(RankingMemoriaService.class);
+		}
+
+		@Bean
+		RankingLiderancaService rankingLiderancaService() {
+			RankingLiderancaService lideranca = mock(RankingLiderancaService.class);
+			when(lideranca.souLider()).thenReturn(true);
+			return lideranca;
+		}
+
+		@Bean
+		RankingAtualizacaoService rankingAtualizacaoService(RankingService rankingService,
+				RankingLiderancaService rankingLiderancaService, ThreadPoolTaskExecutor rankingTaskExecutor) {
+			return new RankingAtualizacaoService(rankingService, rankingLiderancaService, rankingTaskExecutor,
+					new SimpleMeterRegistry(), 0);
+		}
+
+		@Bean
+		RankingAsyncService rankingAsyncService(RankingMemoriaService rankingMemoriaService,
+				RankingAtualizacaoService rankingAtualizacaoService, RankingLiderancaService rankingLiderancaService) {
+			return new RankingAsyncService(rankingMemoriaService, mock(RankingAmigosService.class),
+					rankingAtualizacaoService, rankingLiderancaService,
+					new CacheInvalidacaoService(mock(JdbcTemplate.class), "", "", "", 30_000));
+		}
+
+		@Bean
+		ProgressoService progressoService(RankingAsyncService rankingAsyncService,
+				ApplicationEventPublisher eventPublisher) {
+			ProgressoRepository progressoRepository = mock(ProgressoRepository.class);
+			when(progressoRepository.save(any())).thenAnswer(invocacao -> {
+				Progresso progresso = invocacao.getArgument(0);
+				progresso.calcularXp();
+				return progresso;
+			});
+			UsuarioService usuarioService = mock(UsuarioService.class);
+			when(usuarioService.buscarPorId(any())).thenAnswer(invocacao -> {
+				Usuario usuario = new Usuario();
+				usuario.setId(invocacao.getArgument(0));
+				return usuario;
+			});
+			when(usuarioService.adicionarXp(any(), anyLong())).thenReturn(new UsuarioService.XpAdicionado(50, 1, 1));
+			LivroService livroService = mock(LivroService.class);
+			when(livroService.buscarPorId(any())).thenReturn(new Livro());
+			return new ProgressoService(progressoRepository, usuarioService, livroService, rankingAsyncService,
+					mock(NotificacaoService.class), mock(AcumuladorXpService.class), eventPublisher);
+		}
+	}
+
+	// Só o suficiente para @Transactional abrir e confirmar a transação e disparar os listeners AFTER_COMMIT
+	private static class TransacaoSemBanco extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}